@@ -0,0 +1,117 @@
+package com.example.sb.demo;
+
+import com.example.sb.demo.dto.RegistrationExportRow;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.Registration;
+import com.example.sb.demo.entity.User;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Synthetic datasets for the JMH benchmarks and in-memory stand-ins for the
+ * Spring Data repositories, so services and controllers can be benchmarked
+ * without a database. Data is generated from a fixed seed, so every run sees
+ * the same rows.
+ */
+public final class BenchmarkData {
+    public static final LocalDateTime BASE = LocalDateTime.now().minusMonths(6);
+
+    private static final String[] ROLES = {"STUDENT", "STUDENT", "STUDENT", "STUDENT", "ADMIN"};
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "APPROVED", "REJECTED", "CANCELLED"};
+    private static final String[] DEPARTMENTS = {"CSE", "ECE", "EEE", "MECH", "CIVIL", "IT", "MBA", "BIO"};
+
+    private BenchmarkData() {
+    }
+
+    public static List<User> users(int count) {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("student" + i);
+            user.setPassword("secret");
+            user.setEmail("student" + i + "@college.edu");
+            user.setFullName("Student Number " + i);
+            user.setRole(ROLES[random.nextInt(ROLES.length)]);
+            user.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+            users.add(user);
+        }
+        return users;
+    }
+
+    /** Events created by users drawn from the given list. */
+    public static List<Event> events(int count, List<User> creators) {
+        Random random = new Random(43);
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Event event = new Event();
+            event.setId((long) i);
+            event.setTitle("Event " + i);
+            event.setDescription("Description of event " + i);
+            event.setVenue("Hall " + (i % 20));
+            event.setEventDate(BASE.plusMinutes(i));
+            event.setCreatedAt(BASE);
+            event.setStatus("APPROVED");
+            event.setCreatedBy(creators.get(random.nextInt(creators.size())));
+            events.add(event);
+        }
+        return events;
+    }
+
+    public static List<Registration> registrations(int count, List<Event> events, List<User> users) {
+        Random random = new Random(44);
+        List<Registration> registrations = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Registration registration = new Registration();
+            registration.setId((long) i);
+            registration.setEvent(events.get(random.nextInt(events.size())));
+            registration.setUser(users.get(random.nextInt(users.size())));
+            registration.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            registration.setRegistrationDate(BASE.plusSeconds(i));
+            registrations.add(registration);
+        }
+        return registrations;
+    }
+
+    /** Export rows where roughly one title in ten needs CSV quoting. */
+    public static List<RegistrationExportRow> exportRows(int count) {
+        Random random = new Random(45);
+        List<RegistrationExportRow> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            long eventId = 1 + random.nextInt(500);
+            long userId = 1 + random.nextInt(50_000);
+            String title = i % 10 == 0 ? "Hackathon, \"Night\" " + eventId : "Tech Fest " + eventId;
+            rows.add(new RegistrationExportRow((long) i, eventId, title, userId, "student" + userId,
+                    "student" + userId + "@college.edu", STATUSES[random.nextInt(STATUSES.length)],
+                    BASE.plusSeconds(i)));
+        }
+        return rows;
+    }
+
+    /**
+     * A repository whose methods answer through the given functions of their
+     * arguments, keyed by method name, or by name and argument count
+     * ("findAll/1") where a name is overloaded; anything else throws.
+     */
+    public static <T> T repository(Class<T> type, Map<String, Function<Object[], ?>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object[] arguments = args == null ? new Object[0] : args;
+                    Function<Object[], ?> answer = answers.get(method.getName() + "/" + arguments.length);
+                    if (answer == null) {
+                        answer = answers.get(method.getName());
+                    }
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(arguments);
+                }));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.sb.demo.controller;
+
+import com.example.sb.demo.BenchmarkData;
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.dto.UserSearchDocument;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.Registration;
+import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.RegistrationRepository;
+import com.example.sb.demo.repository.UserRepository;
+import com.example.sb.demo.service.CurrentUserHolder;
+import com.example.sb.demo.service.EventService;
+import com.example.sb.demo.service.RegistrationService;
+import com.example.sb.demo.service.UserSearchIndex;
+import com.example.sb.demo.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * The admin report aggregations (generate*Report behind /admin/reports) and the
+ * first page of /admin/users, filtered by role or searched through a real
+ * UserSearchIndex, driven through the controller with repositories answering
+ * from synthetic lists. The role filter's repository hands out a precomputed
+ * page, standing in for the indexed SQL query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AdminReportBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private static final SessionUser ADMIN = new SessionUser(1L, "ADMIN", "Admin", 0);
+
+    private AdminController controller;
+
+    @Setup
+    public void setUp() {
+        List<User> users = BenchmarkData.users(rows);
+        List<User> creators = users.subList(0, Math.min(users.size(), 2_000));
+        List<Event> events = BenchmarkData.events(rows, creators);
+        List<Registration> registrations = BenchmarkData.registrations(rows, events, users);
+
+        Map<Long, User> usersById = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<String, List<User>> usersByRole = users.stream().collect(Collectors.groupingBy(User::getRole));
+
+        UserRepository userRepository = BenchmarkData.repository(UserRepository.class, Map.of(
+                "findAll/0", args -> users,
+                "findAll/1", args -> page(users, (Pageable) args[0]),
+                "findByRole", args -> page(usersByRole.getOrDefault((String) args[0], List.of()), (Pageable) args[1]),
+                "findAllById", args -> StreamSupport.stream(((Iterable<?>) args[0]).spliterator(), false)
+                        .map(usersById::get)
+                        .toList()));
+        EventRepository eventRepository = BenchmarkData.repository(EventRepository.class,
+                Map.of("findByEventDateBetween", args -> events));
+        RegistrationRepository registrationRepository = BenchmarkData.repository(RegistrationRepository.class,
+                Map.of("findByRegistrationDateBetween", args -> registrations));
+
+        UserSearchIndex userSearchIndex = new UserSearchIndex(userRepository);
+        userSearchIndex.index(users.stream()
+                .map(u -> new UserSearchDocument(u.getId(), u.getUsername(), u.getFullName(), u.getEmail(), u.getRole()))
+                .toList());
+
+        controller = new AdminController(
+                new UserService(userRepository, null, userSearchIndex, null),
+                new EventService(eventRepository, null, null, null, null, null),
+                new RegistrationService(registrationRepository, null, null, null, null),
+                null, null, null, null, new CurrentUserHolder(null, null) {
+                    @Override
+                    public Optional<SessionUser> find() {
+                        return Optional.of(ADMIN);
+                    }
+                }, null);
+    }
+
+    @Benchmark
+    public Model eventReport() {
+        return report("events");
+    }
+
+    @Benchmark
+    public Model registrationReport() {
+        return report("registrations");
+    }
+
+    @Benchmark
+    public Model userReport() {
+        return report("users");
+    }
+
+    @Benchmark
+    public Model filterUsersByRole() {
+        Model model = new ExtendedModelMap();
+        controller.manageUsers(model, new MockHttpSession(), "STUDENT", null, 0, UserService.DEFAULT_PAGE_SIZE);
+        return model;
+    }
+
+    @Benchmark
+    public Model searchUsers() {
+        Model model = new ExtendedModelMap();
+        controller.manageUsers(model, new MockHttpSession(), null, "number 12", 0, UserService.DEFAULT_PAGE_SIZE);
+        return model;
+    }
+
+    private static Page<User> page(List<User> users, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), users.size());
+        int to = Math.min(from + pageable.getPageSize(), users.size());
+        return new PageImpl<>(users.subList(from, to), pageable, users.size());
+    }
+
+    private Model report(String type) {
+        Model model = new ExtendedModelMap();
+        controller.viewReports(model, type, "year");
+        return model;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.BenchmarkData;
+import com.example.sb.demo.dto.RegistrationExportRow;
+import com.example.sb.demo.repository.RegistrationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registration export formatting: the CSV and XLSX writers over a stubbed
+ * cursor, and escapeCsv on its own. Output goes to a null stream, so only
+ * formatting and encoding are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvExportBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private RegistrationService registrationService;
+    private List<RegistrationExportRow> exportRows;
+
+    @Setup
+    public void setUp() {
+        exportRows = BenchmarkData.exportRows(rows);
+        RegistrationRepository repository = BenchmarkData.repository(RegistrationRepository.class,
+                Map.of("streamExportRows", args -> exportRows.stream()));
+        registrationService = new RegistrationService(repository, null, null, null, null);
+    }
+
+    @Benchmark
+    public void exportCsv() throws IOException {
+        registrationService.exportRegistrationsCsv(null, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public long exportXlsx() throws IOException {
+        AtomicLong written = new AtomicLong();
+        registrationService.exportRegistrationsXlsx(null, OutputStream.nullOutputStream(), written);
+        return written.get();
+    }
+
+    @Benchmark
+    public void escapeCsv(Blackhole blackhole) {
+        for (RegistrationExportRow row : exportRows) {
+            blackhole.consume(RegistrationService.escapeCsv(row.getEventTitle()));
+            blackhole.consume(RegistrationService.escapeCsv(row.getEmail()));
+        }
+    }
+}
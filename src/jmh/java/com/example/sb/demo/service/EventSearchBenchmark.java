@@ -0,0 +1,64 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.BenchmarkData;
+import com.example.sb.demo.dto.EventSearchDocument;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of EventSearchIndex hits. Every synthetic event shares the words
+ * "event" and "description", so {@code event} is the worst case, a query that
+ * matches the whole index; {@code e} is a one-letter query, and the others
+ * match a single event or one venue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    private int events;
+
+    @Param({"e", "even", "event", "hall 7", "event 54321"})
+    private String query;
+
+    private EventSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        List<EventSearchDocument> documents = BenchmarkData.events(events, BenchmarkData.users(100)).stream()
+                .map(EventSearchBenchmark::document)
+                .toList();
+        EventRepository repository = BenchmarkData.repository(EventRepository.class,
+                Map.of("findAllSearchDocuments", args -> documents));
+        index = new EventSearchIndex(repository);
+        index.rebuild();
+    }
+
+    @Benchmark
+    public EventSearchIndex.Hits search() {
+        return index.search(query, 0, EventService.DEFAULT_PAGE_SIZE);
+    }
+
+    private static EventSearchDocument document(Event event) {
+        return new EventSearchDocument(event.getId(), event.getTitle(), event.getDescription(), event.getVenue());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.sb.demo.config;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache for Event and User, backed by Caffeine through
+ * JCache. Every region is bounded in size and expires entries after
+ * app.cache.ttl-minutes; Hibernate itself evicts entries on entity writes.
+ */
+@Configuration
+public class EntityCacheConfig {
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${app.cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${app.cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Bean
+    public CacheManager entityCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        for (String region : List.of(Event.class.getName(), User.class.getName(), QUERY_RESULTS_REGION)) {
+            if (cacheManager.getCache(region) == null) {
+                CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+                config.setMaximumSize(OptionalLong.of(maxEntries));
+                config.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+                cacheManager.createCache(region, config);
+            }
+        }
+        // query results are validated against these timestamps, so they must outlive them
+        if (cacheManager.getCache(UPDATE_TIMESTAMPS_REGION) == null) {
+            cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+}
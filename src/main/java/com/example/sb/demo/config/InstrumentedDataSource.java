@@ -0,0 +1,112 @@
+package com.example.sb.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every statement executed through the wrapped DataSource, whether it
+ * comes from Hibernate or from JdbcTemplate, against the current thread's
+ * {@link SqlRequestStats}. Without an open scope calls pass straight through.
+ */
+class InstrumentedDataSource extends DelegatingDataSource {
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    InstrumentedDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement and prepareCall take the SQL up front, createStatement at execute time
+                return statement(statement, firstString(args));
+            }
+            return result;
+        });
+    }
+
+    private static Statement statement(Statement target, String preparedSql) {
+        Class<? extends Statement> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return proxy(type, (method, args) -> {
+            SqlRequestStats stats = SqlRequestStats.current();
+            if (stats == null) {
+                return invoke(target, method, args);
+            }
+            if (method.getName().startsWith("execute")) {
+                String sql = firstString(args) != null ? firstString(args) : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    return resultSet(invoke(target, method, args), stats);
+                } finally {
+                    stats.statementExecuted(sql, System.nanoTime() - start);
+                }
+            }
+            Object result = invoke(target, method, args);
+            return "getResultSet".equals(method.getName()) ? resultSet(result, stats) : result;
+        });
+    }
+
+    private static Object resultSet(Object result, SqlRequestStats stats) {
+        if (!(result instanceof ResultSet target)) {
+            return result;
+        }
+        return proxy(ResultSet.class, (method, args) -> {
+            Object value = invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(value)) {
+                stats.rowFetched();
+            }
+            return value;
+        });
+    }
+
+    private static String firstString(Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Interceptor interceptor) {
+        // Hibernate keeps statements and result sets in hash maps, so the proxies
+        // need identity semantics of their own rather than the target's
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> interceptor.invoke(method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
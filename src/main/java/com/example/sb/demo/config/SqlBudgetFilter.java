@@ -0,0 +1,156 @@
+package com.example.sb.demo.config;
+
+import com.example.sb.demo.service.SqlRouteStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Measures the SQL each request issues, view rendering included, and adds it to
+ * the per-route totals in {@link SqlRouteStatistics}; only registered with
+ * app.sql-budget.enabled, like the DataSource instrumentation it reads. With
+ * app.sql-budget.response-headers on (the dev profile), the numbers are also
+ * sent as X-SQL-* response headers, which requires buffering the body. A body
+ * written after the request has gone async, such as a StreamingResponseBody
+ * export, is passed straight through and goes out without the headers. Queries
+ * run on other threads are not counted.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sql-budget.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private static final String STATS_ATTRIBUTE = SqlBudgetFilter.class.getName() + ".stats";
+
+    private final SqlRouteStatistics routeStatistics;
+
+    @Value("${app.sql-budget.response-headers:false}")
+    private boolean responseHeaders;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // async requests are finished on their final dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpServletResponse target = response;
+        if (responseHeaders && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            target = new HeaderBufferingResponse(request, response);
+        }
+
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            stats.end();
+        }
+
+        SqlRequestStats earlier = (SqlRequestStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (earlier != null) {
+            earlier.add(stats);
+            stats = earlier;
+        }
+        if (isAsyncStarted(request)) {
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            routeStatistics.record(request.getMethod(), pattern.toString(), stats);
+        }
+
+        ContentCachingResponseWrapper cached = WebUtils.getNativeResponse(target, ContentCachingResponseWrapper.class);
+        if (cached != null) {
+            // redirects, errors and streamed bodies have already been committed and go out without the headers
+            cached.setHeader("X-SQL-Statements", String.valueOf(stats.getStatements()));
+            cached.setHeader("X-SQL-Time-Ms", String.format(Locale.ROOT, "%.1f", stats.getJdbcMillis()));
+            cached.setHeader("X-SQL-Rows", String.valueOf(stats.getRows()));
+            cached.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Buffers the body so the headers can still be set after the handler ran,
+     * except what is written to the output stream once the request has gone
+     * async: a streamed body would otherwise be held in memory whole and reach
+     * the client only at the end. Spring MVC opens that stream on the request
+     * thread, so the switch happens on the first write after going async.
+     */
+    private static class HeaderBufferingResponse extends ContentCachingResponseWrapper {
+        private final HttpServletRequest request;
+        private volatile boolean streamed;
+        private ServletOutputStream outputStream;
+
+        HeaderBufferingResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new StreamingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        private ServletOutputStream target(ServletOutputStream buffer) throws IOException {
+            if (!streamed && request.isAsyncStarted()) {
+                streamed = true;
+                // whatever was buffered before the request went async goes first, with no Content-Length
+                copyBodyToResponse(false);
+            }
+            return streamed ? getResponse().getOutputStream() : buffer;
+        }
+
+        private class StreamingOutputStream extends ServletOutputStream {
+            private final ServletOutputStream buffer;
+
+            StreamingOutputStream(ServletOutputStream buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                target(buffer).write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                target(buffer).write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                target(buffer).flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return buffer.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                buffer.setWriteListener(writeListener);
+            }
+        }
+    }
+}
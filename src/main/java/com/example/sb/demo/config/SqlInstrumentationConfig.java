@@ -0,0 +1,32 @@
+package com.example.sb.demo.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource in an {@link InstrumentedDataSource} so per-request SQL
+ * can be measured by {@link SqlBudgetFilter} and by tests. Every JDBC call then
+ * goes through a reflective proxy, so this is only on with app.sql-budget.enabled
+ * (the dev profile and the SQL budget tests).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-budget.enabled", havingValue = "true")
+public class SqlInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
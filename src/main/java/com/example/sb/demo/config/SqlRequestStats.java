@@ -0,0 +1,84 @@
+package com.example.sb.demo.config;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL executed on the current thread while a scope is open: statement count,
+ * time spent in JDBC execute calls and rows read from result sets. Scopes nest;
+ * when an inner scope ends its totals are added to the enclosing one.
+ */
+public final class SqlRequestStats {
+    private static final int MAX_RECORDED_SQL = 100;
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private final SqlRequestStats parent;
+    @Getter
+    private int statements;
+    @Getter
+    private long jdbcNanos;
+    @Getter
+    private long rows;
+    private final List<String> sql = new ArrayList<>();
+
+    private SqlRequestStats(SqlRequestStats parent) {
+        this.parent = parent;
+    }
+
+    public static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public void end() {
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("SQL stats scopes must be closed in the order they were opened");
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+            parent.add(this);
+        }
+    }
+
+    public List<String> getSql() {
+        return Collections.unmodifiableList(sql);
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+
+    void statementExecuted(String statement, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        if (sql.size() < MAX_RECORDED_SQL) {
+            sql.add(statement);
+        }
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    void add(SqlRequestStats other) {
+        statements += other.statements;
+        jdbcNanos += other.jdbcNanos;
+        rows += other.rows;
+        for (String statement : other.sql) {
+            if (sql.size() == MAX_RECORDED_SQL) {
+                break;
+            }
+            sql.add(statement);
+        }
+    }
+}
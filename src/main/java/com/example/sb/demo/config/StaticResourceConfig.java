@@ -0,0 +1,56 @@
+package com.example.sb.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serves /css and /js under content-hashed names (style-&lt;md5&gt;.css) that
+ * templates get automatically: ResourceUrlEncodingFilter rewrites every
+ * {@code @{/css/...}} link. A hashed URL never changes meaning, so responses
+ * to it are immutable for a year. The plain name (a hand-written link, or a
+ * page cached before a deploy) is served too, but its content changes with
+ * every deploy, so it only gets a short max-age. Precompressed .br/.gz copies
+ * made by the build are picked by Accept-Encoding.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+    private static final List<String> ASSET_DIRECTORIES = List.of("css", "js");
+    // the names ContentVersionStrategy produces; a wrong hash resolves to nothing
+    private static final String VERSIONED_FILE = "{file:[^/]+-[0-9a-f]{32}\\.[a-z]+}";
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : ASSET_DIRECTORIES) {
+            // the more specific pattern wins, and a handler only sets Cache-Control on a resource it found
+            resourceChain(registry.addResourceHandler("/" + directory + "/" + VERSIONED_FILE), directory)
+                    .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+            resourceChain(registry.addResourceHandler("/" + directory + "/**"), directory)
+                    .setCacheControl(CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic());
+        }
+    }
+
+    private static ResourceHandlerRegistration resourceChain(ResourceHandlerRegistration registration,
+                                                             String directory) {
+        registration.addResourceLocations("classpath:/static/" + directory + "/")
+                .resourceChain(true)
+                // ahead of the version resolver, so the hashed name resolves to an encoded copy
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        return registration;
+    }
+
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -1,26 +1,45 @@
 package com.example.sb.demo.controller;
 
+import com.example.sb.demo.dto.RegistrationSummary;
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.dto.StudentImportReport;
+import com.example.sb.demo.dto.UserSearchResult;
 import com.example.sb.demo.entity.Event;
 import com.example.sb.demo.entity.Registration;
 import com.example.sb.demo.entity.User;
+import com.example.sb.demo.service.CurrentUserHolder;
+import com.example.sb.demo.service.EntityCacheStatistics;
 import com.example.sb.demo.service.EventService;
+import com.example.sb.demo.service.ExportJob;
+import com.example.sb.demo.service.ExportJobService;
+import com.example.sb.demo.service.XlsxWriter;
 import com.example.sb.demo.service.RegistrationService;
+import com.example.sb.demo.service.SqlRouteStatistics;
+import com.example.sb.demo.service.StatisticsService;
+import com.example.sb.demo.service.StudentImportService;
+import com.example.sb.demo.service.UserSearchIndex;
 import com.example.sb.demo.service.UserService;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -33,11 +52,16 @@ public class AdminController {
     private final UserService userService;
     private final EventService eventService;
     private final RegistrationService registrationService;
-
-    private User getCurrentAdmin(HttpSession session) {
-        User user = userService.getCurrentUser(session)
-                .orElseThrow(() -> new RuntimeException("Not authenticated"));
-        if (!userService.isAdmin(user)) {
+    private final StatisticsService statisticsService;
+    private final ExportJobService exportJobService;
+    private final EntityCacheStatistics entityCacheStatistics;
+    private final SqlRouteStatistics sqlRouteStatistics;
+    private final CurrentUserHolder currentUserHolder;
+    private final StudentImportService studentImportService;
+
+    private SessionUser getCurrentAdmin(HttpSession session) {
+        SessionUser user = currentUserHolder.require();
+        if (!user.isAdmin()) {
             throw new RuntimeException("Unauthorized access");
         }
         session.setAttribute("isAdmin", true); // For Thymeleaf security checks
@@ -47,7 +71,7 @@ public class AdminController {
     @ModelAttribute
     public void addCommonAttributes(Model model, HttpSession session) {
         try {
-            User admin = getCurrentAdmin(session);
+            SessionUser admin = getCurrentAdmin(session);
             model.addAttribute("user", admin);
             model.addAttribute("isAdmin", true);
         } catch (Exception e) {
@@ -64,48 +88,32 @@ public class AdminController {
     public String dashboard(Model model, HttpSession session) {
         getCurrentAdmin(session);
 
-        List<Event> allEvents = eventService.getAllEvents();
-        List<Event> upcomingEvents = eventService.getUpcomingEvents();
-        List<Event> pastEvents = eventService.getPastEvents();
-        List<Registration> allRegistrations = registrationService.getAllRegistrations();
-        List<User> allUsers = userService.getAllUsers();
-
-        Map<String, Long> registrationStats = allRegistrations.stream()
-                .collect(Collectors.groupingBy(Registration::getStatus, Collectors.counting()));
-
-        Map<String, Long> userStats = allUsers.stream()
-                .collect(Collectors.groupingBy(User::getRole, Collectors.counting()));
-
-        model.addAttribute("stats", Map.of(
-                "totalEvents", allEvents.size(),
-                "upcomingEvents", upcomingEvents.size(),
-                "pastEvents", pastEvents.size(),
-                "totalRegistrations", allRegistrations.size(),
-                "pendingRegistrations", registrationStats.getOrDefault("PENDING", 0L),
-                "approvedRegistrations", registrationStats.getOrDefault("APPROVED", 0L),
-                "rejectedRegistrations", registrationStats.getOrDefault("REJECTED", 0L),
-                "totalUsers", allUsers.size(),
-                "totalStudents", userStats.getOrDefault("STUDENT", 0L),
-                "totalAdmins", userStats.getOrDefault("ADMIN", 0L)
-        ));
-
-        model.addAttribute("recentEvents",
-                allEvents.stream()
-                        .sorted(Comparator.comparing(Event::getCreatedAt).reversed())
-                        .limit(5)
-                        .collect(Collectors.toList()));
-
-        model.addAttribute("recentRegistrations",
-                allRegistrations.stream()
-                        .sorted(Comparator.comparing(Registration::getRegistrationDate).reversed())
-                        .limit(5)
-                        .collect(Collectors.toList()));
-
-        model.addAttribute("pendingApprovals", registrationService.getPendingRegistrations());
+        Map<String, Long> stats = statisticsService.snapshot();
+        List<RegistrationSummary> pendingApprovals = registrationService.getRecentPendingRegistrations();
+
+        model.addAttribute("stats", stats);
+        model.addAttribute("recentEvents", eventService.getRecentEvents());
+        model.addAttribute("recentRegistrations", registrationService.getRecentRegistrations());
+        model.addAttribute("pendingApprovals", pendingApprovals);
+        model.addAttribute("morePendingApprovals", stats.get("pendingRegistrations") > pendingApprovals.size());
 
         return "admin/dashboard";
     }
 
+    @GetMapping("/cache-stats")
+    @ResponseBody
+    public Map<String, Object> cacheStatistics(HttpSession session) {
+        getCurrentAdmin(session);
+        return entityCacheStatistics.snapshot();
+    }
+
+    @GetMapping("/sql-stats")
+    @ResponseBody
+    public Map<String, Object> sqlStatistics(HttpSession session) {
+        getCurrentAdmin(session);
+        return sqlRouteStatistics.snapshot();
+    }
+
     @GetMapping("/events/manage")
     public String manageEvents(Model model) {
         model.addAttribute("events", eventService.getAllEvents());
@@ -117,7 +125,7 @@ public class AdminController {
                                HttpSession session,
                                RedirectAttributes redirectAttributes) {
         try {
-            User admin = getCurrentAdmin(session);
+            SessionUser admin = getCurrentAdmin(session);
             eventService.approveEvent(eventId, admin);
             redirectAttributes.addFlashAttribute("successMessage", "Event approved successfully");
         } catch (Exception e) {
@@ -132,7 +140,7 @@ public class AdminController {
                               HttpSession session,
                               RedirectAttributes redirectAttributes) {
         try {
-            User admin = getCurrentAdmin(session);
+            SessionUser admin = getCurrentAdmin(session);
             eventService.rejectEvent(eventId, reason, admin);
             redirectAttributes.addFlashAttribute("successMessage", "Event rejected successfully");
         } catch (Exception e) {
@@ -143,27 +151,23 @@ public class AdminController {
 
     @GetMapping("/users")
     public String manageUsers(Model model,
+                              HttpSession session,
                               @RequestParam(required = false) String role,
-                              @RequestParam(required = false) String query) {
-        List<User> users = userService.getAllUsers();
-
-        if (role != null && !role.isEmpty()) {
-            users = users.stream()
-                    .filter(user -> role.equals(user.getRole()))
-                    .collect(Collectors.toList());
-        }
+                              @RequestParam(required = false) String query,
+                              @RequestParam(required = false, defaultValue = "0") int page,
+                              @RequestParam(required = false, defaultValue = "" + UserService.DEFAULT_PAGE_SIZE) int size) {
+        getCurrentAdmin(session);
 
-        if (query != null && !query.isEmpty()) {
-            String searchQuery = query.toLowerCase();
-            users = users.stream()
-                    .filter(user ->
-                            user.getUsername().toLowerCase().contains(searchQuery) ||
-                                    user.getFullName().toLowerCase().contains(searchQuery) ||
-                                    user.getEmail().toLowerCase().contains(searchQuery))
-                    .collect(Collectors.toList());
+        String search = query;
+        if (query != null && !query.isBlank() && !UserSearchIndex.isSearchable(query)) {
+            model.addAttribute("errorMessage",
+                    "Search needs at least " + UserSearchIndex.MIN_QUERY_LENGTH + " characters");
+            search = null;
         }
+        UserSearchResult result = userService.searchUsers(search, role, page, size);
 
-        model.addAttribute("users", users);
+        model.addAttribute("users", result.getUsers());
+        model.addAttribute("searchResult", result);
         model.addAttribute("selectedRole", role);
         model.addAttribute("searchQuery", query);
         return "admin/users";
@@ -175,7 +179,7 @@ public class AdminController {
                                  HttpSession session,
                                  RedirectAttributes redirectAttributes) {
         try {
-            User admin = getCurrentAdmin(session);
+            SessionUser admin = getCurrentAdmin(session);
             userService.updateUserRole(userId, role, admin);
             redirectAttributes.addFlashAttribute("successMessage",
                     "User role updated successfully");
@@ -191,7 +195,7 @@ public class AdminController {
                                    HttpSession session,
                                    RedirectAttributes redirectAttributes) {
         try {
-            User admin = getCurrentAdmin(session);
+            SessionUser admin = getCurrentAdmin(session);
             userService.updateUserStatus(userId, active, admin);
             redirectAttributes.addFlashAttribute("successMessage",
                     "User status updated successfully");
@@ -201,6 +205,21 @@ public class AdminController {
         return "redirect:/admin/users";
     }
 
+    @PostMapping("/users/import")
+    @ResponseBody
+    public ResponseEntity<?> importStudents(@RequestParam("file") MultipartFile file, HttpSession session) {
+        getCurrentAdmin(session);
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please choose a CSV file"));
+        }
+        try (InputStream in = file.getInputStream()) {
+            StudentImportReport report = studentImportService.importStudents(in);
+            return ResponseEntity.ok(report);
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/registrations")
     public String viewRegistrations(@RequestParam(required = false) Long eventId,
                                     @RequestParam(required = false) String status,
@@ -209,29 +228,13 @@ public class AdminController {
                                     HttpSession session) {
         getCurrentAdmin(session);
 
-        List<Registration> registrations;
         if (eventId != null) {
-            Event event = eventService.getEventById(eventId);
-            model.addAttribute("event", event);
-            registrations = registrationService.getEventRegistrations(event);
-        } else {
-            registrations = registrationService.getAllRegistrations();
-        }
-
-        if (status != null && !status.isEmpty()) {
-            registrations = registrations.stream()
-                    .filter(r -> status.equals(r.getStatus()))
-                    .collect(Collectors.toList());
-        }
-
-        if (department != null && !department.isEmpty()) {
-            registrations = registrations.stream()
-                    .filter(r -> department.equals(r.getUser().getDepartment()))
-                    .collect(Collectors.toList());
+            model.addAttribute("event", eventService.getEventById(eventId));
         }
+        List<RegistrationSummary> registrations = registrationService.searchRegistrations(eventId, status, department);
 
         model.addAttribute("registrations", registrations);
-        model.addAttribute("events", eventService.getAllEvents());
+        model.addAttribute("events", eventService.getEventOptions());
         model.addAttribute("selectedEvent", eventId);
         model.addAttribute("selectedStatus", status);
         model.addAttribute("selectedDepartment", department);
@@ -247,7 +250,7 @@ public class AdminController {
                                            HttpSession session,
                                            RedirectAttributes redirectAttributes) {
         try {
-            User admin = getCurrentAdmin(session);
+            SessionUser admin = getCurrentAdmin(session);
             Registration registration = registrationService.updateRegistrationStatus(
                     registrationId, status, comment, admin);
 
@@ -260,30 +263,113 @@ public class AdminController {
         }
     }
 
+    /**
+     * Bulk moderation: either the selected registration ids, or every registration
+     * of one event with status fromStatus.
+     */
+    @PostMapping("/registrations/bulk-status")
+    public String bulkUpdateRegistrationStatus(@RequestParam(required = false) List<Long> registrationIds,
+                                               @RequestParam(required = false) Long eventId,
+                                               @RequestParam(required = false) String fromStatus,
+                                               @RequestParam String status,
+                                               HttpSession session,
+                                               RedirectAttributes redirectAttributes) {
+        try {
+            getCurrentAdmin(session);
+            int updated;
+            if (registrationIds != null && !registrationIds.isEmpty()) {
+                updated = registrationService.updateRegistrationStatuses(registrationIds, status);
+            } else if (eventId != null && fromStatus != null && !fromStatus.isEmpty()) {
+                updated = registrationService.updateEventRegistrationStatuses(eventId, fromStatus, status);
+            } else {
+                throw new RuntimeException("Select at least one registration to update");
+            }
+            redirectAttributes.addFlashAttribute("successMessage",
+                    updated + " registration(s) updated to " + status);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return eventId != null ? "redirect:/admin/registrations?eventId=" + eventId : "redirect:/admin/registrations";
+    }
+
     @GetMapping("/registrations/export")
-    public ResponseEntity<Resource> exportRegistrations(
+    public ResponseEntity<StreamingResponseBody> exportRegistrations(
             @RequestParam(required = false) Long eventId,
-            @RequestParam(required = false, defaultValue = "csv") String format) {
+            HttpSession session) {
 
+        getCurrentAdmin(session);
+        if (eventId != null) {
+            eventService.getEventById(eventId); // fail before the response is committed
+        }
+
+        String filename = "registrations_" + LocalDateTime.now().format(
+                DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv";
+
+        StreamingResponseBody body = out -> registrationService.exportRegistrationsCsv(eventId, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    @PostMapping("/registrations/export/jobs")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> startExportJob(@RequestParam(required = false) Long eventId,
+                                                              HttpSession session) {
+        getCurrentAdmin(session);
+        if (eventId != null) {
+            eventService.getEventById(eventId);
+        }
         try {
-            String filename = "registrations_" + LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + "." + format;
+            ExportJob job = exportJobService.submitXlsxExport(eventId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(describeJob(job));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/registrations/export/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> exportJobStatus(@PathVariable String jobId, HttpSession session) {
+        getCurrentAdmin(session);
+        return exportJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(describeJob(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-            byte[] data = registrationService.exportRegistrations(eventId, format);
+    @GetMapping("/registrations/export/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId, HttpSession session) {
+        getCurrentAdmin(session);
+        ExportJob job = exportJobService.getJob(jobId)
+                .filter(j -> j.getStatus() == ExportJob.Status.COMPLETED)
+                .orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            MediaType mediaType = switch (format.toLowerCase()) {
-                case "xlsx" -> MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-                case "csv" -> MediaType.TEXT_PLAIN;
-                default -> MediaType.APPLICATION_OCTET_STREAM;
-            };
+        String filename = "registrations_" + job.getCreatedAt().format(
+                DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(MediaType.parseMediaType(XlsxWriter.MEDIA_TYPE))
+                .body(new FileSystemResource(job.getFile()));
+    }
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                    .contentType(mediaType)
-                    .body(new ByteArrayResource(data));
-        } catch (Exception e) {
-            throw new RuntimeException("Error exporting registrations: " + e.getMessage());
+    private Map<String, Object> describeJob(ExportJob job) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("id", job.getId());
+        result.put("status", job.getStatus().name());
+        result.put("rowsWritten", job.getRowsWritten().get());
+        result.put("totalRows", job.getTotalRows());
+        result.put("progress", job.getProgressPercent());
+        if (job.getError() != null) {
+            result.put("error", job.getError());
+        }
+        if (job.getStatus() == ExportJob.Status.COMPLETED) {
+            result.put("downloadUrl", "/admin/registrations/export/jobs/" + job.getId() + "/download");
         }
+        return result;
     }
 
     @GetMapping("/reports")
@@ -28,7 +28,6 @@ public class AuthController {
                     .ifPresentOrElse(
                             user -> {
                                 userService.login(session, user);
-                                session.setAttribute("user", user);
                                 redirectAttributes.addFlashAttribute("successMessage", "Welcome back, " + user.getFullName() + "!");
                             },
                             () -> {
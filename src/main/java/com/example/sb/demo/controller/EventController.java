@@ -1,73 +1,153 @@
 package com.example.sb.demo.controller;
 
+import com.example.sb.demo.dto.EventPage;
+import com.example.sb.demo.dto.EventSearchResult;
+import com.example.sb.demo.dto.ParticipantRow;
+import com.example.sb.demo.dto.SessionUser;
 import com.example.sb.demo.entity.Event;
 import com.example.sb.demo.entity.Registration;
 import com.example.sb.demo.entity.User;
+import com.example.sb.demo.service.AdmissionTicket;
+import com.example.sb.demo.service.CurrentUserHolder;
+import com.example.sb.demo.service.EventCardCache;
+import com.example.sb.demo.service.EventImageService;
 import com.example.sb.demo.service.EventService;
+import com.example.sb.demo.service.RegistrationAdmissionQueue;
 import com.example.sb.demo.service.RegistrationService;
-import com.example.sb.demo.service.UserService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
 @RequiredArgsConstructor
 public class EventController {
     private final EventService eventService;
-    private final UserService userService;
     private final RegistrationService registrationService;
+    private final RegistrationAdmissionQueue admissionQueue;
+    private final CurrentUserHolder currentUserHolder;
+    private final EventImageService eventImageService;
+    private final EventCardCache eventCardCache;
 
-    private User getCurrentUser(HttpSession session) {
-        return userService.getCurrentUser(session)
-                .orElseThrow(() -> new RuntimeException("Not authenticated"));
+    @Value("${app.admission.enabled:true}")
+    private boolean admissionQueueEnabled;
+
+    private SessionUser getCurrentUser() {
+        return currentUserHolder.require();
     }
 
     @GetMapping("/")
-    public String home(Model model, HttpSession session) {
+    public String home(Model model, ServletWebRequest webRequest) {
         boolean isLogin = false;
-        var userOpt = userService.getCurrentUser(session);
+        var userOpt = currentUserHolder.find();
+        List<Event> upcomingEvents = eventService.getUpcomingEvents();
+
+        PageETag etag = new PageETag().withViewer(userOpt.orElse(null));
+        upcomingEvents.forEach(etag::withEvent);
+        if (notModified(webRequest, etag, userOpt.isEmpty())) {
+            return null;
+        }
 
         if (userOpt.isPresent()) {
-            User user = userOpt.get();
+            SessionUser user = userOpt.get();
             isLogin = true;
             model.addAttribute("user", user);
-            model.addAttribute("isAdmin", userService.isAdmin(user));
+            model.addAttribute("isAdmin", user.isAdmin());
         }
 
         model.addAttribute("isLogin", isLogin);
-        model.addAttribute("upcomingEvents", eventService.getUpcomingEvents());
+        model.addAttribute("upcomingEvents", upcomingEvents);
+        model.addAttribute("upcomingCards",
+                eventCardCache.render(EventCardCache.HOME_CARD, upcomingEvents, webRequest.getLocale()));
         return "home";
     }
 
+    /**
+     * Answers 304 when the browser's copy of a page is still current, so the
+     * template is not rendered again. Pages are revalidated on every view, and
+     * a page carrying a flash message is always rendered.
+     */
+    private boolean notModified(ServletWebRequest webRequest, PageETag etag, boolean shared) {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, shared ? "public, no-cache" : "private, no-cache");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        }
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(webRequest.getRequest());
+        return (flash == null || flash.isEmpty()) && webRequest.checkNotModified(etag.build());
+    }
+
     @GetMapping("/events")
-    public String listEvents(Model model, HttpSession session) {
+    public String listEvents(@RequestParam(required = false, defaultValue = "all") String filter,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursor,
+                             @RequestParam(required = false) Long cursorId,
+                             @RequestParam(required = false, defaultValue = "" + EventService.DEFAULT_PAGE_SIZE) int size,
+                             Model model, ServletWebRequest webRequest) {
         
-        User user = getCurrentUser(session);
+        SessionUser user = getCurrentUser();
+        EventPage page = eventService.getEventPage(filter, user, cursor, cursorId, size);
+
+        PageETag etag = new PageETag().withViewer(user).with(filter).with(cursor).with(cursorId).with(size)
+                .with(page.isHasNext());
+        page.getEvents().forEach(etag::withEvent);
+        if (notModified(webRequest, etag, false)) {
+            return null;
+        }
        
 	    model.addAttribute("user", user);
-	    model.addAttribute("isAdmin", userService.isAdmin(user));
-	    model.addAttribute("events", eventService.getAllEvents());
-	    
+	    model.addAttribute("isAdmin", user.isAdmin());
+	    model.addAttribute("events", page.getEvents());
+	    model.addAttribute("eventCards",
+	            eventCardCache.render(EventCardCache.LIST_CARD, page.getEvents(), webRequest.getLocale()));
+	    model.addAttribute("page", page);
+	    model.addAttribute("filter", filter);
+	    model.addAttribute("pageSize", size);
+	    model.addAttribute("isFirstPage", cursor == null);
 	    
 	    return "events/list";
     }
 
+    @GetMapping("/events/search")
+    public String searchEvents(@RequestParam(required = false, defaultValue = "") String q,
+                               @RequestParam(required = false, defaultValue = "0") int page,
+                               @RequestParam(required = false, defaultValue = "" + EventService.DEFAULT_PAGE_SIZE) int size,
+                               Model model, Locale locale) {
+        SessionUser user = getCurrentUser();
+        if (q.isBlank()) {
+            return "redirect:/events";
+        }
+        EventSearchResult result = eventService.searchEvents(q, page, size);
+
+        model.addAttribute("user", user);
+        model.addAttribute("isAdmin", user.isAdmin());
+        model.addAttribute("events", result.getEvents());
+        model.addAttribute("eventCards", eventCardCache.render(EventCardCache.LIST_CARD, result.getEvents(), locale));
+        model.addAttribute("searchResult", result);
+        model.addAttribute("searchQuery", q);
+        model.addAttribute("filter", "all");
+        model.addAttribute("pageSize", result.getSize());
+
+        return "events/list";
+    }
+
     @GetMapping("/events/new")
-    public String newEventForm(Model model, HttpSession session) {
-        getCurrentUser(session); // Ensure user is authenticated
+    public String newEventForm(Model model) {
+        getCurrentUser(); // Ensure user is authenticated
         model.addAttribute("event", new Event());
         return "events/form";
     }
@@ -80,7 +160,6 @@ public class EventController {
                             @RequestParam String venue,
                             @RequestParam(required = false) Integer maxParticipants,
                             @RequestParam(required = false) MultipartFile imageFile,
-                            HttpSession session,
                             RedirectAttributes redirectAttributes) {
         try {
             // Validate date and time
@@ -95,14 +174,15 @@ public class EventController {
             event.setMaxParticipants(maxParticipants);
             event.setEventDate(eventDateTime);
 
-            // Handle image upload
+            // Store the original now; resized variants are generated once the event exists
             if (imageFile != null && !imageFile.isEmpty()) {
-                String imageUrl = handleImageUpload(imageFile);
-                event.setImageUrl(imageUrl);
+                event.setImageUrl(eventImageService.storeOriginal(imageFile));
             }
 
-            User user = getCurrentUser(session);
-            eventService.createEvent(event, user);
+            Event saved = eventService.createEvent(event, currentUserHolder.reference());
+            if (saved.getImageUrl() != null) {
+                eventImageService.generateVariants(saved.getId(), saved.getImageUrl());
+            }
             redirectAttributes.addFlashAttribute("successMessage", "Event created successfully!");
             return "redirect:/events";
         } catch (Exception e) {
@@ -127,33 +207,10 @@ public class EventController {
         }
     }
 
-    private String handleImageUpload(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            return null;
-        }
-
-        // Create the uploads directory if it doesn't exist
-        String uploadDir = "uploads/events";
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Generate a unique filename
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(fileName);
-
-        // Save the file
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        return "/" + uploadDir + "/" + fileName;
-    }
-
     @GetMapping("/events/{id}/edit")
     public String editEventForm(@PathVariable Long id,
-                              Model model,
-                              HttpSession session) {
-        User user = getCurrentUser(session);
+                              Model model) {
+        SessionUser user = getCurrentUser();
         Event event = eventService.getEventById(id);
         
         if (!user.getRole().equals("ADMIN") && !event.getCreatedBy().getId().equals(user.getId())) {
@@ -167,11 +224,19 @@ public class EventController {
     @PostMapping("/events/{id}")
     public String updateEvent(@PathVariable Long id,
                             @ModelAttribute Event event,
-                            HttpSession session,
+                            @RequestParam(required = false) MultipartFile imageFile,
                             RedirectAttributes redirectAttributes) {
         try {
-            User user = getCurrentUser(session);
-            eventService.updateEvent(id, event, user);
+            SessionUser user = getCurrentUser();
+            // never bind image URLs from the request; only a new upload replaces the image
+            event.setImageUrl(null);
+            if (imageFile != null && !imageFile.isEmpty()) {
+                event.setImageUrl(eventImageService.storeOriginal(imageFile));
+            }
+            Event saved = eventService.updateEvent(id, event, user);
+            if (saved.getImageUrl() != null && saved.getThumbnailUrl() == null) {
+                eventImageService.generateVariants(saved.getId(), saved.getImageUrl());
+            }
             redirectAttributes.addFlashAttribute("successMessage", "Event updated successfully!");
             return "redirect:/events";
         } catch (Exception e) {
@@ -183,10 +248,9 @@ public class EventController {
     
     @PostMapping("/events/{id}/delete")
     public String deleteEvent(@PathVariable Long id,
-                              HttpSession session,
                               RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = getCurrentUser(session);
+            SessionUser currentUser = getCurrentUser();
             Event event = eventService.getEventById(id);
 
             // ✅ Allow only creator or admin
@@ -207,10 +271,9 @@ public class EventController {
     @GetMapping("/events/{id}/register")
     public String showRegistrationForm(@PathVariable Long id,
                                        Model model,
-                                       HttpSession session,
                                        RedirectAttributes redirectAttributes) {
     	 try {
-    	        User user = getCurrentUser(session);
+    	        User user = currentUserHolder.reference();
     	        Event event = eventService.getEventById(id);
 
     	        if (registrationService.isAlreadyRegistered(event, user)) {
@@ -228,9 +291,9 @@ public class EventController {
 
     
     @PostMapping("/events/{id}/register")
-    public String registerForEvent(@PathVariable Long id, HttpSession session, RedirectAttributes redirectAttributes) {
+    public String registerForEvent(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
-            User user = getCurrentUser(session);
+            User user = currentUserHolder.reference();
             Event event = eventService.getEventById(id);
 
             // Prevent creator from registering
@@ -239,6 +302,13 @@ public class EventController {
                 return "redirect:/events/" + id;
             }
 
+            if (admissionQueueEnabled) {
+                AdmissionTicket ticket = admissionQueue.submit(event, user);
+                redirectAttributes.addFlashAttribute("successMessage", "You're in the queue! Confirming your seat...");
+                redirectAttributes.addAttribute("ticket", ticket.getId());
+                return "redirect:/events/" + id;
+            }
+
             registrationService.registerForEvent(event, user);
             redirectAttributes.addFlashAttribute("successMessage", "Successfully registered! Status: PENDING");
         } catch (Exception e) {
@@ -249,11 +319,31 @@ public class EventController {
     }
 
 
+    @GetMapping("/registrations/tickets/{ticketId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> admissionTicketStatus(@PathVariable String ticketId) {
+        SessionUser user = getCurrentUser();
+        return admissionQueue.getTicket(ticketId)
+                .filter(ticket -> ticket.getUser().getId().equals(user.getId()))
+                .map(ticket -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("status", ticket.getStatus().name());
+                    body.put("eventId", ticket.getEvent().getId());
+                    if (ticket.getMessage() != null) {
+                        body.put("message", ticket.getMessage());
+                    }
+                    return ResponseEntity.ok(body);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/events/{id}")
-    public String viewEventDetails(@PathVariable Long id, HttpSession session, Model model) {
+    public String viewEventDetails(@PathVariable Long id,
+                                   @RequestParam(required = false) String ticket, Model model,
+                                   ServletWebRequest webRequest) {
         Event event = eventService.getEventById(id);
-        User user = getCurrentUser(session);
-        boolean isAdmin = userService.isAdmin(user);
+        SessionUser user = getCurrentUser();
+        boolean isAdmin = user.isAdmin();
 
         boolean isCreator = false;
         boolean isRegistered = false;
@@ -265,12 +355,7 @@ public class EventController {
         	isCreator = true;
         } else if (user != null) {
             isCreator = event.getCreatedBy().getId().equals(user.getId());
-            registration = registrationService
-                .getEventRegistrations(event)
-                .stream()
-                .filter(r -> r.getUser().getId().equals(user.getId()))
-                .findFirst()
-                .orElse(null);
+            registration = registrationService.findByEventAndUser(event, currentUserHolder.reference());
 
             if (registration != null) {
                 isRegistered = true;
@@ -278,7 +363,12 @@ public class EventController {
                 registrationId = registration.getId(); 
             }
         }
-        
+
+        PageETag etag = new PageETag().withViewer(user).withEvent(event).with(registrationId)
+                .with(registrationStatus).with(ticket);
+        if (notModified(webRequest, etag, false)) {
+            return null;
+        }
 
         model.addAttribute("event", event);
         model.addAttribute("isCreator", isCreator);
@@ -287,6 +377,7 @@ public class EventController {
         model.addAttribute("registrationId", registrationId);
         model.addAttribute("registration", registration);
         model.addAttribute("isAdmin", isAdmin);
+        model.addAttribute("admissionTicket", isRegistered ? null : ticket);
 
         return "events/details";
     }
@@ -294,19 +385,16 @@ public class EventController {
     @PostMapping("/registrations/{registrationId}/update-status")
     public String updateRegistrationStatus(@PathVariable Long registrationId,
                                            @RequestParam("status") String status,
-                                           HttpSession session,
                                            RedirectAttributes redirectAttributes) {
+        Long eventId = 0L;
         try {
-            User currentUser = getCurrentUser(session);
+            SessionUser currentUser = getCurrentUser();
 
             // Fetch registration
-            Registration registration = registrationService.getAllRegistrations()
-                    .stream()
-                    .filter(r -> r.getId().equals(registrationId))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Registration not found"));
+            Registration registration = registrationService.getRegistrationById(registrationId);
 
             Event event = registration.getEvent();
+            eventId = event.getId();
 
             // Authorization: Only creator can update
             if (!event.getCreatedBy().getId().equals(currentUser.getId())) {
@@ -321,29 +409,45 @@ public class EventController {
         }
 
         // ✅ Redirect back to that event's registrations page
-        return "redirect:/events/" + registrationService
-                .getAllRegistrations()
-                .stream()
-                .filter(r -> r.getId().equals(registrationId))
-                .findFirst()
-                .map(r -> r.getEvent().getId())
-                .orElse(0L) + "/registrations";
+        return "redirect:/events/" + eventId + "/registrations";
+    }
+
+
+    @PostMapping("/events/{id}/registrations/bulk-status")
+    public String bulkUpdateRegistrationStatus(@PathVariable Long id,
+                                               @RequestParam String fromStatus,
+                                               @RequestParam String status,
+                                               RedirectAttributes redirectAttributes) {
+        try {
+            SessionUser currentUser = getCurrentUser();
+            Event event = eventService.getEventById(id);
+
+            if (!event.getCreatedBy().getId().equals(currentUser.getId()) && !currentUser.isAdmin()) {
+                redirectAttributes.addFlashAttribute("errorMessage", "You are not authorized to update registration status");
+                return "redirect:/events/" + id + "/registrations";
+            }
+
+            int updated = registrationService.updateEventRegistrationStatuses(id, fromStatus, status);
+            redirectAttributes.addFlashAttribute("successMessage", updated + " registration(s) updated to " + status);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/events/" + id + "/registrations";
     }
 
-    
     @GetMapping("/events/{id}/registrations")
-    public String viewEventRegistrations(@PathVariable Long id, HttpSession session, Model model, RedirectAttributes redirectAttributes) {
+    public String viewEventRegistrations(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = getCurrentUser(session);
+            SessionUser currentUser = getCurrentUser();
             Event event = eventService.getEventById(id);
 
             // Ensure only event creator can view registrations
-            if (!event.getCreatedBy().getId().equals(currentUser.getId()) && !userService.isAdmin(currentUser)) {
+            if (!event.getCreatedBy().getId().equals(currentUser.getId()) && !currentUser.isAdmin()) {
                 redirectAttributes.addFlashAttribute("errorMessage", "You are not authorized to view registrations for this event");
                 return "redirect:/events/" + id;
             }
 
-            List<Registration> registrations = registrationService.getEventRegistrations(event);
+            List<ParticipantRow> registrations = registrationService.getParticipants(id, null);
             model.addAttribute("event", event);
             model.addAttribute("registrations", registrations);
 
@@ -356,11 +460,10 @@ public class EventController {
     
     @GetMapping("/events/{id}/registrations/pending")
     public String viewPendingRegistrations(@PathVariable Long id,
-                                           HttpSession session,
                                            Model model,
                                            RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = getCurrentUser(session);
+            SessionUser currentUser = getCurrentUser();
             Event event = eventService.getEventById(id);
 
             // Only event creator can view
@@ -370,7 +473,7 @@ public class EventController {
             }
 
             // ✅ Get pending registrations only
-            List<Registration> pendingRegistrations = registrationService.getPendingRegistrations(event);
+            List<ParticipantRow> pendingRegistrations = registrationService.getParticipants(id, "PENDING");
 
             model.addAttribute("event", event);
             model.addAttribute("registrations", pendingRegistrations);
@@ -385,10 +488,9 @@ public class EventController {
 
     @PostMapping("/registrations/{id}/cancel")
     public String cancelRegistration(@PathVariable Long id,
-                                     HttpSession session,
                                      RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) session.getAttribute("user");
+            SessionUser currentUser = getCurrentUser();
             registrationService.cancelRegistration(id, currentUser);
             redirectAttributes.addFlashAttribute("successMessage", "Registration cancelled successfully!");
         } catch (Exception e) {
@@ -0,0 +1,40 @@
+package com.example.sb.demo.controller;
+
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.entity.Event;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Weak ETag for a rendered page, built from everything the page shows. A token
+ * taken at startup is part of every tag, so a deployment with changed templates
+ * never matches a page rendered by the previous one.
+ */
+final class PageETag {
+    private static final String DEPLOYMENT = Long.toString(System.currentTimeMillis(), 36);
+
+    private final StringBuilder key = new StringBuilder(DEPLOYMENT);
+
+    PageETag with(Object part) {
+        key.append('|').append(part);
+        return this;
+    }
+
+    /** The layout shows different navigation per user and role. */
+    PageETag withViewer(SessionUser user) {
+        return user == null ? with("anonymous") : with(user.getId()).with(user.getRole()).with(user.getVersion());
+    }
+
+    /** seats_taken is changed by SQL that leaves updated_at alone, so it is part of the key. */
+    PageETag withEvent(Event event) {
+        return with(event.getId())
+                .with(event.getUpdatedAt() != null ? event.getUpdatedAt() : event.getCreatedAt())
+                .with(event.getSeatsTaken())
+                .with(event.getStatus());
+    }
+
+    String build() {
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
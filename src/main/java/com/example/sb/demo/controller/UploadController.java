@@ -0,0 +1,191 @@
+package com.example.sb.demo.controller;
+
+import com.example.sb.demo.service.EventImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves uploaded event images with validators and byte ranges. Content-hashed
+ * names never change, so they are cached as immutable with the hash as their
+ * ETag; older uploads get an ETag from a hash of their bytes and a shorter
+ * max-age. On Tomcat the body is handed to the connector's sendfile support, so
+ * image bytes are copied by the kernel rather than through the servlet stream.
+ */
+@Controller
+@RequiredArgsConstructor
+public class UploadController {
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, max-age=86400";
+    // raster formats only: an SVG is a document that can carry script, and EventImageService
+    // never stores one; webp is for older uploads kept under their original names
+    private static final Set<MediaType> SERVED_TYPES = Set.of(MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG,
+            MediaType.IMAGE_GIF, MediaType.parseMediaType("image/bmp"), MediaType.parseMediaType("image/webp"));
+
+    // request attributes of Tomcat's sendfile support (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final EventImageService eventImageService;
+
+    private record ContentTag(long size, long lastModified, String etag) {
+    }
+
+    private final Map<Path, ContentTag> contentTags = new ConcurrentHashMap<>();
+
+    @GetMapping("/${app.event.image.upload.dir:uploads/events}/{fileName:.+}")
+    public void serve(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path file = eventImageService.findFile(fileName);
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(null);
+        // only ever serve images from the upload directory, whatever name they were uploaded with
+        if (file == null || mediaType == null || !SERVED_TYPES.contains(mediaType) || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        boolean contentAddressed = EventImageService.isContentAddressed(fileName);
+        String etag = contentAddressed
+                ? "\"" + fileName.substring(0, fileName.lastIndexOf('.')) + "\""
+                : contentTag(file, length, lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, contentAddressed ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // multipart/byteranges is not worth it for images; several ranges get the whole file
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = -1;
+                }
+                // HttpRange clamps the end to the file but leaves a start past it as it is
+                if (start < 0 || start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(mediaType.toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        // a buffering wrapper (SQL budget headers in dev) would never see a sendfile body
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /** If-Range uses strong comparison; a weak or stale validator means the whole file is sent. */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date != -1 && date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Hashes older, randomly named uploads once per size and modification time. */
+    private String contentTag(Path file, long size, long lastModified) throws IOException {
+        ContentTag cached = contentTags.get(file);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return cached.etag();
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        String etag = "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        contentTags.put(file, new ContentTag(size, lastModified, etag));
+        return etag;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sb.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event id and title for filter drop-downs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventOption {
+    private Long id;
+    private String title;
+}
@@ -0,0 +1,21 @@
+package com.example.sb.demo.dto;
+
+import com.example.sb.demo.entity.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One keyset page of events. When {@code hasNext} is true, the next page starts
+ * after ({@code nextCursorDate}, {@code nextCursorId}).
+ */
+@Data
+@AllArgsConstructor
+public class EventPage {
+    private List<Event> events;
+    private boolean hasNext;
+    private LocalDateTime nextCursorDate;
+    private Long nextCursorId;
+}
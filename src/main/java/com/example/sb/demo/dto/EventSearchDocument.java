@@ -0,0 +1,18 @@
+package com.example.sb.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The searchable text of an event, loaded without the rest of the entity graph.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSearchDocument {
+    private Long id;
+    private String title;
+    private String description;
+    private String venue;
+}
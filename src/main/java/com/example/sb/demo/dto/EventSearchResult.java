@@ -0,0 +1,28 @@
+package com.example.sb.demo.dto;
+
+import com.example.sb.demo.entity.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of ranked search hits. {@code page} is zero based.
+ */
+@Data
+@AllArgsConstructor
+public class EventSearchResult {
+    private String query;
+    private List<Event> events;
+    private int page;
+    private int size;
+    private int totalHits;
+
+    public boolean isHasNext() {
+        return (long) (page + 1) * size < totalHits;
+    }
+
+    public boolean isHasPrevious() {
+        return page > 0;
+    }
+}
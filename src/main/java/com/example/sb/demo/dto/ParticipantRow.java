@@ -0,0 +1,18 @@
+package com.example.sb.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of an event's participant list as shown to its organizer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipantRow {
+    private Long id;
+    private String username;
+    private String email;
+    private String status;
+}
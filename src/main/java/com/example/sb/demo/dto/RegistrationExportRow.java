@@ -0,0 +1,25 @@
+package com.example.sb.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged view of a registration holding only the exported columns, so
+ * streamed rows never accumulate in the persistence context.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationExportRow {
+    private Long registrationId;
+    private Long eventId;
+    private String eventTitle;
+    private Long userId;
+    private String username;
+    private String email;
+    private String status;
+    private LocalDateTime registrationDate;
+}
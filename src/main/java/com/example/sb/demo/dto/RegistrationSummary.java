@@ -0,0 +1,24 @@
+package com.example.sb.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the admin registration tables (dashboard and registrations page),
+ * loaded with the event and user columns in the same query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationSummary {
+    private Long id;
+    private Long eventId;
+    private String eventTitle;
+    private String userFullName;
+    private String userDepartment;
+    private String status;
+    private LocalDateTime registrationDate;
+}
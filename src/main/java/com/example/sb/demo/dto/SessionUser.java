@@ -0,0 +1,27 @@
+package com.example.sb.demo.dto;
+
+import com.example.sb.demo.entity.User;
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * What the HTTP session remembers about the logged-in user. Kept small and
+ * immutable; {@code version} is the User row version at login and is used to
+ * notice when the user has changed since.
+ */
+@Value
+public class SessionUser implements Serializable {
+    Long id;
+    String role;
+    String fullName;
+    long version;
+
+    public static SessionUser of(User user) {
+        return new SessionUser(user.getId(), user.getRole(), user.getFullName(), user.getVersion());
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
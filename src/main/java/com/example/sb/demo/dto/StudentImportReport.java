@@ -0,0 +1,27 @@
+package com.example.sb.demo.dto;
+
+import lombok.Data;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk student import. {@code errors} lists rejected rows by CSV
+ * line number, up to a limit; {@code rejected} always has the full count.
+ */
+@Data
+public class StudentImportReport {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    @Value
+    public static class RowError {
+        long line;
+        String username;
+        String reason;
+    }
+}
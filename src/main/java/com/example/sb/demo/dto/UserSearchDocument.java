@@ -0,0 +1,19 @@
+package com.example.sb.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The searchable fields of a user, loaded without the rest of the entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchDocument {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String email;
+    private String role;
+}
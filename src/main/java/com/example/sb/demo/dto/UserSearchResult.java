@@ -0,0 +1,30 @@
+package com.example.sb.demo.dto;
+
+import com.example.sb.demo.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of the admin user list, optionally filtered by role and a search
+ * query. {@code page} is zero based.
+ */
+@Data
+@AllArgsConstructor
+public class UserSearchResult {
+    private String query;
+    private String role;
+    private List<User> users;
+    private int page;
+    private int size;
+    private long totalHits;
+
+    public boolean isHasNext() {
+        return (long) (page + 1) * size < totalHits;
+    }
+
+    public boolean isHasPrevious() {
+        return page > 0;
+    }
+}
@@ -4,11 +4,18 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "events")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_event_date_id", columnList = "event_date, id"),
+        @Index(name = "idx_events_image_url", columnList = "image_url")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,10 +37,24 @@ public class Event {
     private String venue;
 
     private String imageUrl;
+
+    // resized copies of imageUrl written by EventImageService; null until generated
+    private String thumbnailUrl;
+
+    private String cardImageUrl;
+
+    private String detailImageUrl;
     
     private Integer maxParticipants;
+
+    // seats held by PENDING and APPROVED registrations; only ever changed by the
+    // atomic updates in SeatAllocator, never by saving the entity. Saving still puts
+    // this value in the second-level cache, so EventService saves events it read under
+    // the row lock those updates take
+    @Column(nullable = false, updatable = false)
+    private int seatsTaken;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
@@ -7,7 +7,13 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "registrations")
+@Table(name = "registrations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_registrations_event_user", columnNames = {"event_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_registrations_registration_date", columnList = "registration_date"),
+        @Index(name = "idx_registrations_event_status", columnList = "event_id, status"),
+        @Index(name = "idx_registrations_status_date", columnList = "status, registration_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,11 +22,11 @@ public class Registration {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -4,18 +4,31 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_KEY, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_KEY, columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_users_role", columnList = "role"),
+        @Index(name = "idx_users_department", columnList = "department")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
+    public static final String USERNAME_KEY = "uk_users_username";
+    public static final String EMAIL_KEY = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @Column(nullable = false)
@@ -34,6 +47,10 @@ public class User {
     private String studentId;
     private String department;
     private String year;
+
+    // bumped on every update; lets sessions notice that their user changed
+    @Version
+    private long version;
     
 	public boolean isAdmin() {
 		return this.getRole().equals("ADMIN");
@@ -1,14 +1,89 @@
 package com.example.sb.demo.repository;
 
+import com.example.sb.demo.dto.EventOption;
+import com.example.sb.demo.dto.EventSearchDocument;
 import com.example.sb.demo.entity.Event;
 import com.example.sb.demo.entity.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findByCreatedBy(User user);
     List<Event> findByEventDateAfterOrderByEventDateAsc(LocalDateTime date);
     List<Event> findByEventDateBeforeOrderByEventDateDesc(LocalDateTime date);
+
+    @EntityGraph(attributePaths = "createdBy")
     List<Event> findAllByOrderByEventDateDesc();
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "createdBy")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Event> findTop5ByOrderByCreatedAtDesc();
+
+    @Query("SELECT new com.example.sb.demo.dto.EventOption(e.id, e.title) FROM Event e ORDER BY e.eventDate DESC")
+    List<EventOption> findAllOptions();
+
+    @Query("""
+            SELECT e FROM Event e JOIN FETCH e.createdBy
+            WHERE e.eventDate BETWEEN :start AND :end
+            ORDER BY e.eventDate
+            """)
+    List<Event> findByEventDateBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT e.id, e.eventDate FROM Event e WHERE e.eventDate > :now")
+    List<Object[]> findUpcomingEventDates(@Param("now") LocalDateTime now);
+
+    /**
+     * Keyset page over (eventDate, id) descending. Every filter is optional: a null
+     * argument disables it. The cursor is the (eventDate, id) of the last row of the
+     * previous page, so the database seeks on idx_events_event_date_id instead of
+     * skipping OFFSET rows.
+     */
+    @Query("""
+            SELECT e FROM Event e JOIN FETCH e.createdBy
+            WHERE (:after IS NULL OR e.eventDate > :after)
+              AND (:creatorId IS NULL OR e.createdBy.id = :creatorId)
+              AND (:registrantId IS NULL OR EXISTS (
+                    SELECT r.id FROM Registration r WHERE r.event = e AND r.user.id = :registrantId))
+              AND (:cursorDate IS NULL
+                    OR e.eventDate < :cursorDate
+                    OR (e.eventDate = :cursorDate AND e.id < :cursorId))
+            ORDER BY e.eventDate DESC, e.id DESC
+            """)
+    List<Event> findPage(@Param("after") LocalDateTime after,
+                         @Param("creatorId") Long creatorId,
+                         @Param("registrantId") Long registrantId,
+                         @Param("cursorDate") LocalDateTime cursorDate,
+                         @Param("cursorId") Long cursorId,
+                         Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+            UPDATE Event e SET e.seatsTaken = (
+                SELECT COUNT(r) FROM Registration r
+                WHERE r.event = e AND r.status IN ('PENDING', 'APPROVED'))
+            """)
+    int recountSeats();
+
+    @Query("SELECT new com.example.sb.demo.dto.EventSearchDocument(e.id, e.title, e.description, e.venue) FROM Event e")
+    List<EventSearchDocument> findAllSearchDocuments();
+
+    @Query("SELECT e FROM Event e JOIN FETCH e.createdBy WHERE e.id IN :ids")
+    List<Event> findAllWithCreatorByIdIn(@Param("ids") Collection<Long> ids);
+}
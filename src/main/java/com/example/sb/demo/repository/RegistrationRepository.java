@@ -1,11 +1,24 @@
 package com.example.sb.demo.repository;
 
+import com.example.sb.demo.dto.ParticipantRow;
+import com.example.sb.demo.dto.RegistrationExportRow;
+import com.example.sb.demo.dto.RegistrationSummary;
 import com.example.sb.demo.entity.Event;
 import com.example.sb.demo.entity.Registration;
 import com.example.sb.demo.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RegistrationRepository extends JpaRepository<Registration, Long> {
     List<Registration> findByUser(User user);
@@ -14,5 +27,112 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     boolean existsByEventAndUser(Event event, User user);
     List<Registration> findByEventAndStatus(Event event, String status);
     List<Registration> findByUserAndStatus(User user, String status);
-    
+    long countByEventId(Long eventId);
+
+    @Query("SELECT r.user.id FROM Registration r WHERE r.event.id = :eventId AND r.user.id IN :userIds")
+    List<Long> findRegisteredUserIds(@Param("eventId") Long eventId, @Param("userIds") Collection<Long> userIds);
+    @Query("SELECT DISTINCT r.event.id, r.status FROM Registration r WHERE r.id IN :ids")
+    List<Object[]> findEventIdsAndStatuses(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Set-based status change for the given registrations of one event that
+     * currently have status {@code from}; returns the number of rows changed.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Registration r SET r.status = :to
+            WHERE r.event.id = :eventId AND r.status = :from AND r.id IN :ids
+            """)
+    int updateStatus(@Param("eventId") Long eventId,
+                     @Param("ids") Collection<Long> ids,
+                     @Param("from") String from,
+                     @Param("to") String to);
+
+    /**
+     * Moves one registration from {@code from} to {@code to}; returns 0 if its
+     * status is no longer {@code from}, so only one of two concurrent changes
+     * wins and moves seats and counters.
+     */
+    @Modifying
+    @Query("UPDATE Registration r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int updateStatusIfCurrent(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Registration r SET r.status = :to WHERE r.event.id = :eventId AND r.status = :from")
+    int updateStatusForEvent(@Param("eventId") Long eventId,
+                             @Param("from") String from,
+                             @Param("to") String to);
+
+    /**
+     * Newest registrations first, optionally limited to one status; page through
+     * the Pageable to cap the row count.
+     */
+    @Query("""
+            SELECT new com.example.sb.demo.dto.RegistrationSummary(
+                r.id, e.id, e.title, u.fullName, u.department, r.status, r.registrationDate)
+            FROM Registration r JOIN r.event e JOIN r.user u
+            WHERE (:status IS NULL OR r.status = :status)
+            ORDER BY r.registrationDate DESC
+            """)
+    List<RegistrationSummary> findRecentSummaries(@Param("status") String status, Pageable pageable);
+
+    @Query("""
+            SELECT new com.example.sb.demo.dto.ParticipantRow(r.id, u.username, u.email, r.status)
+            FROM Registration r JOIN r.user u
+            WHERE r.event.id = :eventId AND (:status IS NULL OR r.status = :status)
+            ORDER BY r.registrationDate
+            """)
+    List<ParticipantRow> findParticipants(@Param("eventId") Long eventId, @Param("status") String status);
+
+    @Query("""
+            SELECT r FROM Registration r JOIN FETCH r.event JOIN FETCH r.user
+            WHERE r.status = :status
+            ORDER BY r.registrationDate DESC
+            """)
+    List<Registration> findByStatus(@Param("status") String status);
+
+    @Query("""
+            SELECT r FROM Registration r JOIN FETCH r.event JOIN FETCH r.user
+            WHERE r.registrationDate BETWEEN :start AND :end
+            ORDER BY r.registrationDate
+            """)
+    List<Registration> findByRegistrationDateBetween(@Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end);
+
+    /**
+     * Admin registration list. Each filter is optional (null disables it); event
+     * and status are served by idx_registrations_event_status or
+     * idx_registrations_status_date, and department by idx_users_department
+     * joined to registrations through the user_id foreign key index.
+     */
+    @Query("""
+            SELECT new com.example.sb.demo.dto.RegistrationSummary(
+                r.id, e.id, e.title, u.fullName, u.department, r.status, r.registrationDate)
+            FROM Registration r JOIN r.event e JOIN r.user u
+            WHERE (:eventId IS NULL OR e.id = :eventId)
+              AND (:status IS NULL OR r.status = :status)
+              AND (:department IS NULL OR u.department = :department)
+            ORDER BY r.registrationDate DESC
+            """)
+    List<RegistrationSummary> search(@Param("eventId") Long eventId,
+                              @Param("status") String status,
+                              @Param("department") String department);
+
+    @Query("SELECT r.status, COUNT(r) FROM Registration r GROUP BY r.status")
+    List<Object[]> countGroupedByStatus();
+
+    /**
+     * Streams export rows for one event, or for all events when eventId is null.
+     * Integer.MIN_VALUE makes MySQL Connector/J stream the result set row by row
+     * instead of buffering it; the stream must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("""
+            SELECT new com.example.sb.demo.dto.RegistrationExportRow(
+                r.id, e.id, e.title, u.id, u.username, u.email, r.status, r.registrationDate)
+            FROM Registration r JOIN r.event e JOIN r.user u
+            WHERE (:eventId IS NULL OR e.id = :eventId)
+            ORDER BY r.id
+            """)
+    Stream<RegistrationExportRow> streamExportRows(@Param("eventId") Long eventId);
 }
\ No newline at end of file
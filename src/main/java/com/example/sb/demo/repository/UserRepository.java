@@ -1,12 +1,47 @@
 package com.example.sb.demo.repository;
 
+import com.example.sb.demo.dto.UserSearchDocument;
 import com.example.sb.demo.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countGroupedByRole();
+
+    Page<User> findByRole(String role, Pageable pageable);
+
+    @Query("SELECT DISTINCT u.department FROM User u WHERE u.department IS NOT NULL")
+    List<String> findDistinctDepartments();
+
+    @Modifying
+    @Query("UPDATE User u SET u.department = :department WHERE u.department = :stored")
+    int renameDepartment(@Param("stored") String stored, @Param("department") String department);
+
+    @Query("SELECT new com.example.sb.demo.dto.UserSearchDocument(u.id, u.username, u.fullName, u.email, u.role) "
+            + "FROM User u ORDER BY u.id")
+    List<UserSearchDocument> findAllSearchDocuments();
+
+    @Query("SELECT new com.example.sb.demo.dto.UserSearchDocument(u.id, u.username, u.fullName, u.email, u.role) "
+            + "FROM User u WHERE u.username IN :usernames")
+    List<UserSearchDocument> findSearchDocumentsByUsernameIn(@Param("usernames") Collection<String> usernames);
+}
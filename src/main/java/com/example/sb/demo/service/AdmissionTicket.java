@@ -0,0 +1,45 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.User;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued registration request. Handed back to the student immediately and
+ * resolved by RegistrationAdmissionQueue once its batch has been written.
+ */
+@Getter
+@Setter(AccessLevel.PACKAGE)
+public class AdmissionTicket {
+    public enum Status { QUEUED, ADMITTED, REJECTED }
+
+    private final String id;
+    private final Event event;
+    private final User user;
+    private final long submittedAtNanos = System.nanoTime();
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile long resolvedAtNanos;
+
+    AdmissionTicket(String id, Event event, User user) {
+        this.id = id;
+        this.event = event;
+        this.user = user;
+    }
+
+    void resolve(Status status, String message) {
+        this.message = message;
+        this.resolvedAtNanos = System.nanoTime();
+        this.status = status;
+    }
+
+    public boolean isResolved() {
+        return status != Status.QUEUED;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sb.demo.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, fields optionally quoted
+ * with "" as an escaped quote, quoted fields may span lines. Reads one record
+ * at a time, so memory does not grow with the file.
+ */
+final class CsvReader implements Closeable {
+    private final PushbackReader in;
+    private long nextLine = 1;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this.in = new PushbackReader(new BufferedReader(reader));
+    }
+
+    /** The next record's fields, or null at the end of input. */
+    List<String> next() throws IOException {
+        recordLine = nextLine;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    int following = in.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (following != -1) {
+                            in.unread(following);
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                nextLine++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Line number the last record returned by {@link #next()} started on. */
+    long getLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
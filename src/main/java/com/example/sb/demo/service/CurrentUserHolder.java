@@ -0,0 +1,47 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * The logged-in user for the current request, resolved from the session at most
+ * once per request.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUserHolder {
+    private final HttpServletRequest request;
+    private final UserService userService;
+
+    private boolean resolved;
+    private SessionUser principal;
+
+    public Optional<SessionUser> find() {
+        if (!resolved) {
+            HttpSession session = request.getSession(false);
+            principal = session == null ? null : userService.resolvePrincipal(session).orElse(null);
+            resolved = true;
+        }
+        return Optional.ofNullable(principal);
+    }
+
+    public SessionUser require() {
+        return find().orElseThrow(() -> new RuntimeException("Not authenticated"));
+    }
+
+    /**
+     * An uninitialized reference to the user's row, for associating with new
+     * entities without loading the user.
+     */
+    public User reference() {
+        return userService.getReference(require().getId());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The distinct departments of all users, for the admin registration filter.
+ *
+ * Loaded with one DISTINCT query over idx_users_department when the application
+ * is ready. Departments only appear through new users, which UserService and
+ * StudentImportService add after their transaction commits. Names are trimmed
+ * with inner whitespace collapsed, and a name differing from a known one only
+ * in case maps to the known spelling, so the list holds one entry per
+ * department. Rows stored before names were normalized are rewritten to that
+ * spelling on load, so the exact department filter finds them too.
+ */
+@Component
+@RequiredArgsConstructor
+public class DepartmentDictionary {
+    private final UserRepository userRepository;
+
+    // lower-cased name -> the spelling shown, ordered for the filter dropdown
+    private final ConcurrentSkipListMap<String, String> departments = new ConcurrentSkipListMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void refresh() {
+        Map<String, String> loaded = new TreeMap<>();
+        // sorted, so the same spelling wins every time and capitalized ones come first
+        List<String> stored = userRepository.findDistinctDepartments().stream().sorted().toList();
+        for (String department : stored) {
+            String name = normalize(department);
+            if (name != null) {
+                loaded.putIfAbsent(key(name), name);
+            }
+        }
+        for (String department : stored) {
+            String name = normalize(department);
+            String spelling = name == null ? null : loaded.get(key(name));
+            if (!department.equals(spelling)) {
+                userRepository.renameDepartment(department, spelling);
+            }
+        }
+        departments.keySet().retainAll(loaded.keySet());
+        departments.putAll(loaded);
+    }
+
+    public List<String> getDepartments() {
+        return List.copyOf(departments.values());
+    }
+
+    /** The known spelling of a department, the normalized name if it is new, or null when blank. */
+    public String canonical(String department) {
+        String name = normalize(department);
+        return name == null ? null : departments.getOrDefault(key(name), name);
+    }
+
+    public void add(String department) {
+        String name = canonical(department);
+        if (name != null) {
+            AfterCommit.run(() -> departments.putIfAbsent(key(name), name));
+        }
+    }
+
+    static String normalize(String department) {
+        if (department == null) {
+            return null;
+        }
+        String name = department.strip().replaceAll("\\s+", " ");
+        return name.isEmpty() ? null : name;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
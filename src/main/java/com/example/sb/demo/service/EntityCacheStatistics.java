@@ -0,0 +1,50 @@
+package com.example.sb.demo.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads second-level cache hit and miss counters from Hibernate statistics
+ * (hibernate.generate_statistics must be on).
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheStatistics {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> snapshot() {
+        Statistics stats = statistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", stats.getSecondLevelCacheHitCount());
+        result.put("misses", stats.getSecondLevelCacheMissCount());
+        result.put("puts", stats.getSecondLevelCachePutCount());
+        result.put("queryCacheHits", stats.getQueryCacheHitCount());
+        result.put("queryCacheMisses", stats.getQueryCacheMissCount());
+        result.put("statementsPrepared", stats.getPrepareStatementCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String name : stats.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = stats.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, Map.of(
+                        "hits", region.getHitCount(),
+                        "misses", region.getMissCount(),
+                        "puts", region.getPutCount(),
+                        "size", region.getElementCountInMemory()));
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rendered HTML of the event card bodies on the home and list pages
+ * (events/cards.html). The cards look the same to every viewer, so each is
+ * rendered once per event version and locale and reused. Keys carry
+ * updated_at, which also moves when image variants are recorded; EventService
+ * evicts an event's cards when it changes or is deleted. Entries also expire,
+ * which bounds how long an organizer's renamed profile shows the old name.
+ * <p>
+ * Off unless app.fragment-cache.enabled is set (the prod profile), so template
+ * edits show up immediately during development.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventCardCache {
+    public static final String HOME_CARD = "homeCard";
+    public static final String LIST_CARD = "listCard";
+    private static final String TEMPLATE = "events/cards";
+
+    private final ITemplateEngine templateEngine;
+
+    @Value("${app.fragment-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.fragment-cache.max-entries:5000}")
+    private long maxEntries;
+
+    @Value("${app.fragment-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private Cache<Key, String> cache;
+
+    private record Key(String fragment, Long eventId, LocalDateTime version, Locale locale) {
+    }
+
+    @PostConstruct
+    void start() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /** Card HTML by event id. */
+    public Map<Long, String> render(String fragment, List<Event> events, Locale locale) {
+        Map<Long, String> cards = new HashMap<>();
+        for (Event event : events) {
+            String html = enabled
+                    ? cache.get(new Key(fragment, event.getId(), version(event), locale),
+                            key -> renderCard(fragment, event, locale))
+                    : renderCard(fragment, event, locale);
+            cards.put(event.getId(), html);
+        }
+        return cards;
+    }
+
+    public void evict(Long eventId) {
+        cache.asMap().keySet().removeIf(key -> key.eventId().equals(eventId));
+    }
+
+    private String renderCard(String fragment, Event event, Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable("event", event);
+        return templateEngine.process(TEMPLATE, Set.of(fragment), context);
+    }
+
+    private static LocalDateTime version(Event event) {
+        return event.getUpdatedAt() != null ? event.getUpdatedAt() : event.getCreatedAt();
+    }
+}
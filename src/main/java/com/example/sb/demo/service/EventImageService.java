@@ -0,0 +1,408 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Event image uploads. The original is stored on the request thread under its
+ * content hash; decoding, validation and resizing into thumbnail, card and
+ * detail JPEGs happen on a small bounded pool. Variant URLs are written to the
+ * event once all three exist, and until then pages fall back to the original.
+ * Uploads that turn out not to be readable images are unlinked from the event.
+ * <p>
+ * Files are shared by every event with the same image_url, which is their
+ * reference count: an image is deleted once no event points at it.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventImageService {
+    private static final float JPEG_QUALITY = 0.82f;
+    // the formats ImageIO can decode without extra plugins
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg", "image/png", ".png", "image/gif", ".gif", "image/bmp", ".bmp");
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|bmp)");
+    private static final Pattern CONTENT_ADDRESSED_NAME =
+            Pattern.compile("[0-9a-f]{64}(-(thumb|card|detail))?\\.(jpg|png|gif|bmp)");
+
+    public enum Variant {
+        THUMBNAIL("thumb", 320),
+        CARD("card", 640),
+        DETAIL("detail", 1280);
+
+        private final String suffix;
+        private final int width;
+
+        Variant(String suffix, int width) {
+            this.suffix = suffix;
+            this.width = width;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.event.image.upload.dir:uploads/events}")
+    private String uploadDir;
+
+    @Value("${app.event.image.workers:2}")
+    private int workers;
+
+    @Value("${app.event.image.max-queued:64}")
+    private int maxQueued;
+
+    // decoding allocates 4 bytes per pixel, so a small file can still be a huge image
+    @Value("${app.event.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${app.event.image.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    private final Object storageLock = new Object();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued),
+                r -> {
+                    Thread thread = new Thread(r, "event-image-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stores the upload under the SHA-256 of its bytes, computed while it streams
+     * to disk, and returns its URL. Identical images share one file and one URL.
+     * Only the declared content type is checked here; decoding happens later.
+     */
+    public String storeOriginal(MultipartFile file) throws IOException {
+        String contentType = file.getContentType();
+        String extension = contentType == null ? null : EXTENSIONS.get(contentType.toLowerCase(Locale.ROOT));
+        if (extension == null) {
+            throw new RuntimeException("Event images must be JPEG, PNG, GIF or BMP files");
+        }
+
+        Path uploadPath = Paths.get(uploadDir);
+        Files.createDirectories(uploadPath);
+        Path temp = Files.createTempFile(uploadPath, ".upload", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String fileName = HexFormat.of().formatHex(digest.digest()) + extension;
+            Path target = uploadPath.resolve(fileName);
+            synchronized (storageLock) {
+                if (Files.exists(target)) {
+                    // already stored; refresh it so the orphan sweep leaves it alone until the event commits
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                } else {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            return urlPrefix() + fileName;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Queues variant generation for an event's current image. Call after the
+     * event has been committed. When the pool is saturated the event simply
+     * keeps using its original.
+     */
+    public void generateVariants(Long eventId, String imageUrl) {
+        try {
+            executor.execute(() -> process(eventId, imageUrl));
+        } catch (RejectedExecutionException ignored) {
+            // pages fall back to the original image
+        }
+    }
+
+    /**
+     * Called after commit when an event stops pointing at an image. The file and
+     * its variants are deleted once no event references it any more; anything
+     * missed here is picked up by {@link #collectOrphans()}.
+     */
+    public void release(String imageUrl) {
+        try {
+            executor.execute(() -> collect(imageUrl, Duration.ofMinutes(orphanGraceMinutes)));
+        } catch (RejectedExecutionException ignored) {
+            // left for the sweep
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void collectOrphans() {
+        Path uploadPath = Paths.get(uploadDir);
+        if (!Files.isDirectory(uploadPath)) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT image_url FROM events WHERE image_url IS NOT NULL", String.class));
+        List<String> orphans;
+        try (Stream<Path> files = Files.list(uploadPath)) {
+            orphans = files.map(file -> file.getFileName().toString())
+                    .filter(name -> STORED_NAME.matcher(name).matches())
+                    .map(name -> urlPrefix() + name)
+                    .filter(url -> !referenced.contains(url))
+                    .toList();
+        } catch (IOException e) {
+            return;
+        }
+        orphans.forEach(url -> collect(url, Duration.ofMinutes(orphanGraceMinutes)));
+    }
+
+    /** The stored file behind an upload URL's last segment, or null if the name cannot be one of ours. */
+    public Path findFile(String fileName) {
+        return resolve(urlPrefix() + fileName);
+    }
+
+    /** Originals and variants named after their content hash never change and can be cached forever. */
+    public static boolean isContentAddressed(String fileName) {
+        return CONTENT_ADDRESSED_NAME.matcher(fileName).matches();
+    }
+
+    void process(Long eventId, String imageUrl) {
+        Path original = resolve(imageUrl);
+        if (original == null) {
+            return;
+        }
+
+        Map<Variant, String> urls = new EnumMap<>(Variant.class);
+        for (Variant variant : Variant.values()) {
+            urls.put(variant, urlPrefix() + variantName(original, variant));
+        }
+        boolean generated = urls.keySet().stream()
+                .allMatch(variant -> Files.exists(original.resolveSibling(variantName(original, variant))));
+        if (!generated) {
+            // identical uploads share variants, so this only runs once per distinct image
+            BufferedImage image;
+            try {
+                image = decode(original);
+            } catch (IOException | RuntimeException e) {
+                reject(eventId, imageUrl);
+                return;
+            }
+            try {
+                for (Variant variant : Variant.values()) {
+                    writeJpeg(scale(image, variant.width), original.resolveSibling(variantName(original, variant)));
+                }
+            } catch (IOException e) {
+                return;
+            }
+        }
+
+        // only if the event still points at this image; it may have been replaced or deleted meanwhile
+        jdbcTemplate.update("UPDATE events SET thumbnail_url = ?, card_image_url = ?, "
+                        + "detail_image_url = ?, updated_at = ? WHERE id = ? AND image_url = ?",
+                urls.get(Variant.THUMBNAIL), urls.get(Variant.CARD), urls.get(Variant.DETAIL),
+                LocalDateTime.now(), eventId, imageUrl);
+        evict(eventId);
+    }
+
+    private void reject(Long eventId, String imageUrl) {
+        jdbcTemplate.update("UPDATE events SET image_url = NULL, updated_at = ? WHERE id = ? AND image_url = ?",
+                LocalDateTime.now(), eventId, imageUrl);
+        evict(eventId);
+        collect(imageUrl, Duration.ZERO);
+    }
+
+    /** Deletes an image and its variants if no event references it and it was not stored within the grace period. */
+    void collect(String imageUrl, Duration grace) {
+        Path original = resolve(imageUrl);
+        if (original == null) {
+            return;
+        }
+        synchronized (storageLock) {
+            Long references = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM events WHERE image_url = ?", Long.class, imageUrl);
+            if (references == null || references > 0) {
+                return;
+            }
+            try {
+                if (Files.exists(original)
+                        && Files.getLastModifiedTime(original).toInstant().isAfter(Instant.now().minus(grace))) {
+                    return;
+                }
+                Files.deleteIfExists(original);
+            } catch (IOException e) {
+                return;
+            }
+            deleteVariants(original);
+        }
+    }
+
+    private void evict(Long eventId) {
+        // the update bypassed Hibernate and autocommitted, so the cached entity is stale now
+        entityManagerFactory.getCache().evict(Event.class, eventId);
+    }
+
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                throw new IOException("Cannot read " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // the header gives the dimensions before any pixel data is allocated
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IOException("Image dimensions are too large");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Scales down to at most the given width, keeping the aspect ratio; never scales up. */
+    static BufferedImage scale(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        // halve first: a single bilinear pass from a much larger image skips most source pixels
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width) {
+            current = draw(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2));
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha; flatten transparent PNGs onto white instead of black
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+
+        // write to a temp file and move it into place so a half-written variant is never served
+        Path temp = Files.createTempFile(target.getParent(), ".variant", ".tmp");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void deleteVariants(Path original) {
+        for (Variant variant : Variant.values()) {
+            try {
+                Files.deleteIfExists(original.resolveSibling(variantName(original, variant)));
+            } catch (IOException ignored) {
+                // an unreferenced variant is harmless
+            }
+        }
+    }
+
+    static String variantName(Path original, Variant variant) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        return stem + "-" + variant.suffix + ".jpg";
+    }
+
+    private String urlPrefix() {
+        return "/" + uploadDir + "/";
+    }
+
+    /** Maps one of our upload URLs back to its file; null for anything else. */
+    private Path resolve(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(urlPrefix())) {
+            return null;
+        }
+        String name = imageUrl.substring(urlPrefix().length());
+        if (name.isEmpty() || name.startsWith(".") || name.contains("/") || name.contains("\\")) {
+            return null;
+        }
+        return Paths.get(uploadDir).resolve(name);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
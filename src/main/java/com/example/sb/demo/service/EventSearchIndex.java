@@ -0,0 +1,302 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.EventSearchDocument;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over event title, description and venue.
+ *
+ * Built once when the application is ready and kept current by EventService;
+ * changes made inside a transaction are applied only after it commits, and
+ * changes committed while a rebuild is loading are replayed onto the rebuilt
+ * index before it replaces the old one. Every
+ * query token must match (as a prefix of) some indexed term, and hits are ranked
+ * by field weight times inverse document frequency. Tokens shorter than
+ * {@link #MIN_PREFIX_LENGTH} only match whole terms: a one-letter prefix would
+ * walk nearly every posting list.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventSearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int VENUE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+    public static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final Comparator<Map.Entry<Long, Double>> BY_RANK =
+            Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey());
+
+    private final EventRepository eventRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (event id -> weighted term frequency), sorted for prefix lookups
+    private TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // event id -> terms it contributed, so a document can be removed cleanly
+    private Map<Long, Set<String>> documentTerms = new HashMap<>();
+    // changes committed while rebuild() is loading; null when no rebuild is running
+    private List<Change> pendingChanges;
+
+    public record Hits(int total, List<Long> eventIds) {
+    }
+
+    /** A new version of an event's document, or its removal when doc is null. */
+    private record Change(Long eventId, EventSearchDocument doc) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TreeMap<String, Map<Long, Integer>> newPostings = new TreeMap<>();
+        Map<Long, Set<String>> newDocumentTerms = new HashMap<>();
+        boolean loaded = false;
+        try {
+            for (EventSearchDocument doc : eventRepository.findAllSearchDocuments()) {
+                addDocument(doc, newPostings, newDocumentTerms);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    // the load may have read its rows before these changes committed
+                    for (Change change : pendingChanges) {
+                        apply(change, newPostings, newDocumentTerms);
+                    }
+                    postings = newPostings;
+                    documentTerms = newDocumentTerms;
+                }
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void index(Event event) {
+        EventSearchDocument doc = new EventSearchDocument(
+                event.getId(), event.getTitle(), event.getDescription(), event.getVenue());
+        AfterCommit.run(() -> apply(new Change(doc.getId(), doc)));
+    }
+
+    public void remove(Long eventId) {
+        AfterCommit.run(() -> apply(new Change(eventId, null)));
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(change, postings, documentTerms);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Change change,
+                              Map<String, Map<Long, Integer>> postings,
+                              Map<Long, Set<String>> documentTerms) {
+        removeDocument(change.eventId(), postings, documentTerms);
+        if (change.doc() != null) {
+            addDocument(change.doc(), postings, documentTerms);
+        }
+    }
+
+    public Hits search(String query, int offset, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || offset < 0 || limit <= 0) {
+            return new Hits(0, List.of());
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            int documentCount = documentTerms.size();
+            List<TokenMatch> matches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                matches.add(match(token));
+            }
+            // the most selective token first, so the others only look up its hits
+            matches.sort(Comparator.comparingLong(TokenMatch::postingCount));
+            for (TokenMatch match : matches) {
+                if (scores == null) {
+                    scores = score(match, documentCount);
+                } else if ((long) scores.size() * match.terms().size() < match.postingCount()) {
+                    addScores(scores, match, documentCount);
+                } else {
+                    Map<Long, Double> tokenScores = score(match, documentCount);
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new Hits(0, List.of());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (offset >= scores.size()) {
+            return new Hits(scores.size(), List.of());
+        }
+        return new Hits(scores.size(), topRanked(scores, offset, limit));
+    }
+
+    /** The indexed terms a query token matches, and how many postings they hold. */
+    private record TokenMatch(String token, List<Map.Entry<String, Map<Long, Integer>>> terms, long postingCount) {
+    }
+
+    private TokenMatch match(String token) {
+        Map<String, Map<Long, Integer>> range = token.length() < MIN_PREFIX_LENGTH
+                ? postings.subMap(token, true, token, true)
+                : postings.subMap(token, true, token + Character.MAX_VALUE, true);
+        // copied out of the range view, which would walk the tree again for every candidate
+        List<Map.Entry<String, Map<Long, Integer>>> terms = new ArrayList<>(range.entrySet());
+        long postingCount = 0;
+        for (Map.Entry<String, Map<Long, Integer>> term : terms) {
+            postingCount += term.getValue().size();
+        }
+        return new TokenMatch(token, terms, postingCount);
+    }
+
+    private static Map<Long, Double> score(TokenMatch match, int documentCount) {
+        Map<Long, Double> tokenScores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term : match.terms()) {
+            double termScore = termScore(match.token(), term, documentCount);
+            for (Map.Entry<Long, Integer> doc : term.getValue().entrySet()) {
+                tokenScores.merge(doc.getKey(), doc.getValue() * termScore, Double::sum);
+            }
+        }
+        return tokenScores;
+    }
+
+    /** Adds the token's score to each candidate and drops those it does not match. */
+    private static void addScores(Map<Long, Double> scores, TokenMatch match, int documentCount) {
+        Iterator<Map.Entry<Long, Double>> candidates = scores.entrySet().iterator();
+        while (candidates.hasNext()) {
+            Map.Entry<Long, Double> candidate = candidates.next();
+            double score = 0;
+            boolean matched = false;
+            for (Map.Entry<String, Map<Long, Integer>> term : match.terms()) {
+                Integer weight = term.getValue().get(candidate.getKey());
+                if (weight != null) {
+                    score += weight * termScore(match.token(), term, documentCount);
+                    matched = true;
+                }
+            }
+            if (matched) {
+                candidate.setValue(candidate.getValue() + score);
+            } else {
+                candidates.remove();
+            }
+        }
+    }
+
+    private static double termScore(String token, Map.Entry<String, Map<Long, Integer>> term, int documentCount) {
+        double idf = Math.log(1.0 + (double) documentCount / term.getValue().size());
+        return term.getKey().equals(token) ? idf : idf * PREFIX_MATCH_FACTOR;
+    }
+
+    // bounded min-heap: only offset + limit entries are ever kept, not all matches
+    private List<Long> topRanked(Map<Long, Double> scores, int offset, int limit) {
+        // offset is below scores.size(), so this is at most the number of matches
+        int keep = (int) Math.min((long) offset + limit, scores.size());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(BY_RANK);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > keep) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(BY_RANK.reversed());
+        List<Long> ids = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    private static void addDocument(EventSearchDocument doc,
+                                    Map<String, Map<Long, Integer>> postings,
+                                    Map<Long, Set<String>> documentTerms) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, doc.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, doc.getVenue(), VENUE_WEIGHT);
+        addTerms(weights, doc.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                    .put(doc.getId(), entry.getValue());
+        }
+        documentTerms.put(doc.getId(), weights.keySet());
+    }
+
+    private static void removeDocument(Long eventId,
+                                       Map<String, Map<Long, Integer>> postings,
+                                       Map<Long, Set<String>> documentTerms) {
+        Set<String> terms = documentTerms.remove(eventId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(eventId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,30 +1,103 @@
 package com.example.sb.demo.service;
 
+import com.example.sb.demo.dto.EventOption;
+import com.example.sb.demo.dto.EventPage;
+import com.example.sb.demo.dto.EventSearchResult;
+import com.example.sb.demo.dto.SessionUser;
 import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.Registration;
 import com.example.sb.demo.entity.User;
 import com.example.sb.demo.repository.EventRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "app.service", histogram = true)
 public class EventService {
+    public static final int DEFAULT_PAGE_SIZE = 12;
+    private static final int MAX_PAGE_SIZE = 60;
+
     private final EventRepository eventRepository;
+    private final EventSearchIndex eventSearchIndex;
+    private final StatisticsService statisticsService;
+    private final SeatAllocator seatAllocator;
+    private final EventImageService eventImageService;
+    private final EventCardCache eventCardCache;
 
     public List<Event> getAllEvents() {
         return eventRepository.findAllByOrderByEventDateDesc();
     }
 
+    public List<EventOption> getEventOptions() {
+        return eventRepository.findAllOptions();
+    }
+
+    /**
+     * Loads a single keyset page of events, newest first.
+     * filter is one of "all", "upcoming", "created" or "registered"; the last two
+     * are relative to the given user.
+     */
+    public EventPage getEventPage(String filter, SessionUser user, LocalDateTime cursorDate, Long cursorId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime after = "upcoming".equals(filter) ? LocalDateTime.now() : null;
+        Long creatorId = "created".equals(filter) ? user.getId() : null;
+        Long registrantId = "registered".equals(filter) ? user.getId() : null;
+        if (cursorDate == null || cursorId == null) {
+            cursorDate = null;
+            cursorId = null;
+        }
+
+        // fetch one extra row to learn whether a next page exists
+        List<Event> rows = eventRepository.findPage(after, creatorId, registrantId,
+                cursorDate, cursorId, PageRequest.of(0, pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new EventPage(rows, false, null, null);
+        }
+        List<Event> events = rows.subList(0, pageSize);
+        Event last = events.get(pageSize - 1);
+        return new EventPage(events, true, last.getEventDate(), last.getId());
+    }
+
+    /**
+     * Ranked full-text search over title, description and venue, served from
+     * EventSearchIndex; only the events on the requested page are loaded.
+     */
+    public EventSearchResult searchEvents(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        // a page far past the last hit must not overflow into a negative offset
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+        EventSearchIndex.Hits hits = eventSearchIndex.search(query, offset, pageSize);
+
+        List<Long> ids = hits.eventIds();
+        List<Event> events = ids.isEmpty()
+                ? List.of()
+                : eventRepository.findAllWithCreatorByIdIn(ids).stream()
+                        .sorted(Comparator.comparingInt(e -> ids.indexOf(e.getId())))
+                        .collect(Collectors.toList());
+        return new EventSearchResult(query, events, pageNumber, pageSize, hits.total());
+    }
+
     public Event getEventById(Long id) {
         return eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with ID: " + id));
     }
 
+    public List<Event> getRecentEvents() {
+        return eventRepository.findTop5ByOrderByCreatedAtDesc();
+    }
+
     public List<Event> getUpcomingEvents() {
         return eventRepository.findByEventDateAfterOrderByEventDateAsc(LocalDateTime.now());
     }
@@ -38,44 +111,44 @@ public class EventService {
     }
 
     public List<Event> getEventsByDateRange(LocalDateTime start, LocalDateTime end) {
-        return eventRepository.findAll().stream()
-                .filter(e -> e.getEventDate() != null &&
-                        (e.getEventDate().isEqual(start) || e.getEventDate().isAfter(start)) &&
-                        (e.getEventDate().isEqual(end) || e.getEventDate().isBefore(end)))
-                .collect(Collectors.toList());
+        return eventRepository.findByEventDateBetween(start, end);
     }
 
     @Transactional
-    public Event approveEvent(Long eventId, User admin) {
-        if (!"ADMIN".equals(admin.getRole())) {
+    public Event approveEvent(Long eventId, SessionUser admin) {
+        if (!admin.isAdmin()) {
             throw new RuntimeException("Only admins can approve events");
         }
-        Event event = getEventById(eventId);
+        Event event = lockEvent(eventId);
         event.setStatus("APPROVED");
+        AfterCommit.run(() -> eventCardCache.evict(eventId));
         return eventRepository.save(event);
     }
 
     @Transactional
-    public Event rejectEvent(Long eventId, String reason, User admin) {
-        if (!"ADMIN".equals(admin.getRole())) {
+    public Event rejectEvent(Long eventId, String reason, SessionUser admin) {
+        if (!admin.isAdmin()) {
             throw new RuntimeException("Only admins can reject events");
         }
-        Event event = getEventById(eventId);
+        Event event = lockEvent(eventId);
         event.setStatus("REJECTED");
         // reason is currently not persisted (no field). Could be logged or stored in future.
+        AfterCommit.run(() -> eventCardCache.evict(eventId));
         return eventRepository.save(event);
     }
 
     @Transactional
     public Event createEvent(Event event, User user) {
         event.setCreatedBy(user);
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        eventSearchIndex.index(saved);
+        statisticsService.eventCreated(saved);
+        return saved;
     }
 
     @Transactional
-    public Event updateEvent(Long id, Event eventDetails, User user) {
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
+    public Event updateEvent(Long id, Event eventDetails, SessionUser user) {
+        Event event = lockEvent(id);
 
         if (!isAuthorizedToModify(event, user)) {
             throw new RuntimeException("Not authorized to modify this event");
@@ -85,14 +158,40 @@ public class EventService {
         event.setDescription(eventDetails.getDescription());
         event.setEventDate(eventDetails.getEventDate());
         event.setVenue(eventDetails.getVenue());
-        event.setImageUrl(eventDetails.getImageUrl());
+        // the edit form only sends an image when a new one was uploaded
+        String previousImage = event.getImageUrl();
+        if (eventDetails.getImageUrl() != null && !eventDetails.getImageUrl().equals(previousImage)) {
+            event.setImageUrl(eventDetails.getImageUrl());
+            event.setThumbnailUrl(null);
+            event.setCardImageUrl(null);
+            event.setDetailImageUrl(null);
+            if (previousImage != null) {
+                AfterCommit.run(() -> eventImageService.release(previousImage));
+            }
+        }
         event.setMaxParticipants(eventDetails.getMaxParticipants());
 
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        eventSearchIndex.index(saved);
+        statisticsService.eventRescheduled(saved);
+        seatAllocator.capacityChanged(id);
+        AfterCommit.run(() -> eventCardCache.evict(id));
+        return saved;
+    }
+
+    /**
+     * Loads an event for saving through the entity. The row is read under its
+     * lock, the one SeatAllocator's updates take, so the seat count and image
+     * columns saved and put in the second-level cache at commit are current,
+     * and a concurrent seat change waits and evicts the entry after it.
+     */
+    private Event lockEvent(Long id) {
+        return eventRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Event not found"));
     }
 
     @Transactional
-    public void deleteEvent(Long id, User user) {
+    public void deleteEvent(Long id, SessionUser user) {
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
@@ -100,11 +199,25 @@ public class EventService {
             throw new RuntimeException("Not authorized to delete this event");
         }
 
+        // registrations are removed by cascade; count them while they are loaded anyway
+        Map<String, Long> removedRegistrations = event.getRegistrations() == null
+                ? Map.of()
+                : event.getRegistrations().stream()
+                        .filter(r -> r.getStatus() != null)
+                        .collect(Collectors.groupingBy(Registration::getStatus, Collectors.counting()));
+
         eventRepository.delete(event);
+        eventSearchIndex.remove(id);
+        statisticsService.eventDeleted(id, removedRegistrations);
+        AfterCommit.run(() -> eventCardCache.evict(id));
+        String image = event.getImageUrl();
+        if (image != null) {
+            AfterCommit.run(() -> eventImageService.release(image));
+        }
     }
 
-    private boolean isAuthorizedToModify(Event event, User user) {
-        return user.getRole().equals("ADMIN") || event.getCreatedBy().getId().equals(user.getId());
+    private boolean isAuthorizedToModify(Event event, SessionUser user) {
+        return user.isAdmin() || event.getCreatedBy().getId().equals(user.getId());
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.sb.demo.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one background registration export. Written by the worker thread and
+ * read by polling requests, hence the volatile fields.
+ */
+@Getter
+@Setter(AccessLevel.PACKAGE)
+public class ExportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final Long eventId;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long totalRows;
+    private volatile Path file;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    ExportJob(String id, Long eventId) {
+        this.id = id;
+        this.eventId = eventId;
+    }
+
+    public int getProgressPercent() {
+        if (status == Status.COMPLETED) {
+            return 100;
+        }
+        long total = totalRows;
+        return total <= 0 ? 0 : (int) Math.min(99, rowsWritten.get() * 100 / total);
+    }
+}
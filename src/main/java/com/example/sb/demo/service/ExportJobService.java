@@ -0,0 +1,134 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.repository.RegistrationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs XLSX registration exports on a small bounded pool so large reports never
+ * hold a request thread. Finished files are kept in the temp directory until
+ * they expire.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportJobService {
+    private final RegistrationService registrationService;
+    private final RegistrationRepository registrationRepository;
+
+    @Value("${app.export.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${app.export.max-queued-jobs:8}")
+    private int maxQueuedJobs;
+
+    @Value("${app.export.job-ttl-minutes:60}")
+    private long jobTtlMinutes;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs),
+                r -> {
+                    Thread thread = new Thread(r, "export-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        jobs.values().forEach(this::deleteFile);
+    }
+
+    public ExportJob submitXlsxExport(Long eventId) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), eventId);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new RuntimeException("Too many exports in progress, please try again later");
+        }
+        return job;
+    }
+
+    public Optional<ExportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void purgeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobTtlMinutes);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff);
+            if (expired) {
+                deleteFile(job);
+            }
+            return expired;
+        });
+    }
+
+    private void run(ExportJob job) {
+        job.setStatus(ExportJob.Status.RUNNING);
+        Path file = null;
+        try {
+            job.setTotalRows(job.getEventId() == null
+                    ? registrationRepository.count()
+                    : registrationRepository.countByEventId(job.getEventId()));
+
+            file = Files.createTempFile("registrations_" + job.getId(), ".xlsx");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                registrationService.exportRegistrationsXlsx(job.getEventId(), out, job.getRowsWritten());
+            }
+            job.setFile(file);
+            job.setStatus(ExportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // best effort, the temp directory is cleaned eventually
+                }
+            }
+            job.setError(e.getMessage());
+            job.setStatus(ExportJob.Status.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    private void deleteFile(ExportJob job) {
+        Path file = job.getFile();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort, the temp directory is cleaned eventually
+            }
+        }
+    }
+}
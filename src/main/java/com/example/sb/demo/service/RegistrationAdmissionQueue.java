@@ -0,0 +1,233 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.RegistrationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission pipeline in front of RegistrationService.registerForEvent for hot
+ * events. Requests are queued per event and acknowledged with a ticket; a
+ * dispatcher thread drains each queue in batches and admits a whole batch in one
+ * transaction: one locked read of the event, one duplicate check, one seat
+ * update and one JDBC batch insert. If a batch conflicts with a registration
+ * written elsewhere, its tickets are retried one at a time on the regular path.
+ */
+@Service
+@RequiredArgsConstructor
+public class RegistrationAdmissionQueue {
+    private final EventRepository eventRepository;
+    private final RegistrationRepository registrationRepository;
+    private final RegistrationService registrationService;
+    private final StatisticsService statisticsService;
+    private final RegistrationMetrics registrationMetrics;
+    private final SeatAllocator seatAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.admission.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.admission.max-queued:50000}")
+    private int maxQueued;
+
+    @Value("${app.admission.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${app.admission.ticket-ttl-minutes:30}")
+    private long ticketTtlMinutes;
+
+    private final Map<Long, Queue<AdmissionTicket>> queues = new ConcurrentHashMap<>();
+    private final Map<String, AdmissionTicket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private ScheduledExecutorService dispatcher;
+    private TransactionTemplate transactionTemplate;
+
+    private record Rejection(String reason, String message) {
+    }
+
+    private record BatchOutcome(List<AdmissionTicket> admitted, Map<AdmissionTicket, Rejection> rejected) {
+    }
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        registrationMetrics.admissionQueueGauge(queued);
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "registration-admission");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // admit() resolves every failure onto its tickets, so nothing escapes to cancel the schedule
+        dispatcher.scheduleWithFixedDelay(this::drain, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public AdmissionTicket submit(Event event, User user) {
+        if (seatAllocator.isKnownSoldOut(event.getId())) {
+            registrationMetrics.rejected(RegistrationMetrics.QUEUED, "full");
+            throw new RuntimeException("Sorry, this event is full");
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            registrationMetrics.rejected(RegistrationMetrics.QUEUED, "busy");
+            throw new RuntimeException("Registrations are very busy right now, please try again in a moment");
+        }
+        AdmissionTicket ticket = new AdmissionTicket(UUID.randomUUID().toString(), event, user);
+        tickets.put(ticket.getId(), ticket);
+        // added inside compute, so drain() cannot drop the queue between lookup and add
+        queues.compute(event.getId(), (id, queue) -> {
+            Queue<AdmissionTicket> target = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            target.add(ticket);
+            return target;
+        });
+        return ticket;
+    }
+
+    public Optional<AdmissionTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void purgeResolvedTickets() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(ticketTtlMinutes);
+        tickets.values().removeIf(t -> t.isResolved() && t.getResolvedAtNanos() - cutoff < 0);
+    }
+
+    // one batch per event per pass, so a single hot event cannot starve the others;
+    // queues left empty are dropped, so the map only holds events with waiting tickets
+    void drain() {
+        boolean more = true;
+        while (more) {
+            more = false;
+            for (Map.Entry<Long, Queue<AdmissionTicket>> entry : queues.entrySet()) {
+                Queue<AdmissionTicket> queue = entry.getValue();
+                List<AdmissionTicket> batch = new ArrayList<>();
+                AdmissionTicket ticket;
+                while (batch.size() < maxBatchSize && (ticket = queue.poll()) != null) {
+                    batch.add(ticket);
+                }
+                if (!batch.isEmpty()) {
+                    queued.addAndGet(-batch.size());
+                    admit(entry.getKey(), batch);
+                }
+                if (queue.isEmpty()) {
+                    queues.computeIfPresent(entry.getKey(), (id, current) -> current.isEmpty() ? null : current);
+                } else {
+                    more = true;
+                }
+            }
+        }
+    }
+
+    private void admit(Long eventId, List<AdmissionTicket> batch) {
+        BatchOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> admitBatch(eventId, batch));
+        } catch (DataIntegrityViolationException e) {
+            admitOneByOne(batch);
+            return;
+        } catch (RuntimeException e) {
+            batch.forEach(t -> t.resolve(AdmissionTicket.Status.REJECTED, "Registration failed, please try again"));
+            return;
+        }
+        // tickets are only resolved, and rejections counted, once the batch has committed
+        outcome.rejected().forEach((t, rejection) -> {
+            registrationMetrics.rejected(RegistrationMetrics.QUEUED, rejection.reason());
+            t.resolve(AdmissionTicket.Status.REJECTED, rejection.message());
+        });
+        outcome.admitted().forEach(t -> t.resolve(AdmissionTicket.Status.ADMITTED, "Successfully registered! Status: PENDING"));
+    }
+
+    /**
+     * Runs inside one transaction: rejects duplicates and tickets beyond the
+     * remaining capacity, then writes the rest with a single seat update and a
+     * JDBC batch insert. An event left without seats is recorded as sold out, so
+     * later submissions are turned away before they queue.
+     */
+    private BatchOutcome admitBatch(Long eventId, List<AdmissionTicket> batch) {
+        Map<AdmissionTicket, Rejection> rejected = new LinkedHashMap<>();
+        Event event = eventRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null) {
+            batch.forEach(t -> rejected.put(t, new Rejection("missing", "Event not found")));
+            return new BatchOutcome(List.of(), rejected);
+        }
+
+        List<Long> userIds = batch.stream().map(t -> t.getUser().getId()).toList();
+        Set<Long> registered = new HashSet<>(registrationRepository.findRegisteredUserIds(eventId, userIds));
+        int free = event.getMaxParticipants() == null
+                ? Integer.MAX_VALUE
+                : Math.max(0, event.getMaxParticipants() - event.getSeatsTaken());
+
+        List<AdmissionTicket> granted = new ArrayList<>();
+        for (AdmissionTicket ticket : batch) {
+            if (!registered.add(ticket.getUser().getId())) {
+                rejected.put(ticket, new Rejection("duplicate", "Already registered for this event"));
+            } else if (granted.size() >= free) {
+                rejected.put(ticket, new Rejection("full", "Sorry, this event is full"));
+            } else {
+                granted.add(ticket);
+            }
+        }
+        if (event.getMaxParticipants() != null && granted.size() >= free) {
+            seatAllocator.markSoldOut(eventId);
+        }
+        if (granted.isEmpty()) {
+            return new BatchOutcome(granted, rejected);
+        }
+
+        seatAllocator.addSeats(eventId, granted.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO registrations (event_id, user_id, registration_date, status) VALUES (?, ?, ?, 'PENDING')",
+                granted.stream().map(t -> new Object[]{eventId, t.getUser().getId(), now}).toList());
+        statisticsService.registrationsCreated("PENDING", granted.size());
+        registrationMetrics.registered(eventId, RegistrationMetrics.QUEUED, granted.size());
+        registrationMetrics.admissionBatch(granted.size());
+        return new BatchOutcome(granted, rejected);
+    }
+
+    private void admitOneByOne(List<AdmissionTicket> batch) {
+        for (AdmissionTicket ticket : batch) {
+            try {
+                registrationService.registerForEvent(ticket.getEvent(), ticket.getUser());
+                ticket.resolve(AdmissionTicket.Status.ADMITTED, "Successfully registered! Status: PENDING");
+            } catch (RuntimeException e) {
+                ticket.resolve(AdmissionTicket.Status.REJECTED, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.sb.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Business counters for the registration paths. Registrations are tagged with
+ * the event id so per-event rates can be graphed during busy weeks; events are
+ * few enough for that to stay a small number of series.
+ */
+@Component
+@RequiredArgsConstructor
+public class RegistrationMetrics {
+    public static final String DIRECT = "direct";
+    public static final String QUEUED = "queued";
+
+    private final MeterRegistry registry;
+
+    /** Counted after commit, like the dashboard statistics. */
+    public void registered(Long eventId, String path, int count) {
+        Counter counter = Counter.builder("app.registrations.created")
+                .description("Registrations written")
+                .tag("event", String.valueOf(eventId))
+                .tag("path", path)
+                .register(registry);
+        AfterCommit.run(() -> counter.increment(count));
+    }
+
+    public void rejected(String path, String reason) {
+        Counter.builder("app.registrations.rejected")
+                .description("Registration attempts turned away")
+                .tag("path", path)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public void admissionBatch(int size) {
+        DistributionSummary.builder("app.admission.batch.size")
+                .description("Tickets admitted per batch")
+                .register(registry)
+                .record(size);
+    }
+
+    /** The queue must keep a strong reference to the counter; gauges hold it weakly. */
+    public void admissionQueueGauge(AtomicInteger queued) {
+        Gauge.builder("app.admission.queued", queued, AtomicInteger::get)
+                .description("Tickets waiting for admission")
+                .register(registry);
+    }
+}
@@ -1,54 +1,112 @@
 package com.example.sb.demo.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.sb.demo.dto.ParticipantRow;
+import com.example.sb.demo.dto.RegistrationExportRow;
+import com.example.sb.demo.dto.RegistrationSummary;
+import com.example.sb.demo.dto.SessionUser;
 import com.example.sb.demo.entity.Event;
 import com.example.sb.demo.entity.Registration;
 import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.EventRepository;
 import com.example.sb.demo.repository.RegistrationRepository;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "app.service", histogram = true)
 public class RegistrationService {
 	
+    private static final Set<String> MODERATION_STATUSES = Set.of("PENDING", "APPROVED", "REJECTED");
+
     private final RegistrationRepository registrationRepository;
+    private final EventRepository eventRepository;
+    private final StatisticsService statisticsService;
+    private final SeatAllocator seatAllocator;
+    private final RegistrationMetrics registrationMetrics;
 
     @Transactional
     public Registration registerForEvent(Event event, User user) {
         if (registrationRepository.existsByEventAndUser(event, user)) {
+            registrationMetrics.rejected(RegistrationMetrics.DIRECT, "duplicate");
             throw new RuntimeException("Already registered for this event");
         }
+        // take the seat before inserting: the insert's foreign key check share-locks the
+        // event row, and upgrading that lock afterwards would deadlock concurrent registrations
+        if (!seatAllocator.tryReserve(event.getId())) {
+            registrationMetrics.rejected(RegistrationMetrics.DIRECT, "full");
+            throw new RuntimeException("Sorry, this event is full");
+        }
 
         Registration registration = new Registration();
         registration.setEvent(event);
         registration.setUser(user);
         registration.setStatus("PENDING");
 
-        return registrationRepository.save(registration);
+        Registration saved;
+        try {
+            saved = registrationRepository.saveAndFlush(registration);
+        } catch (DataIntegrityViolationException e) {
+            // lost a race with a concurrent registration by the same user
+            registrationMetrics.rejected(RegistrationMetrics.DIRECT, "duplicate");
+            throw new RuntimeException("Already registered for this event");
+        }
+        statisticsService.registrationCreated(saved.getStatus());
+        registrationMetrics.registered(event.getId(), RegistrationMetrics.DIRECT, 1);
+        return saved;
     }
 
-    public List<Registration> getEventRegistrations(Event event) {
-        return registrationRepository.findByEvent(event);
+    /**
+     * The event's participants for its organizer, optionally only those with the
+     * given status.
+     */
+    public List<ParticipantRow> getParticipants(Long eventId, String status) {
+        return registrationRepository.findParticipants(eventId, status);
     }
 
     public List<Registration> getAllRegistrations() {
         return registrationRepository.findAll();
     }
 
+    public List<RegistrationSummary> getRecentRegistrations() {
+        return registrationRepository.findRecentSummaries(null, PageRequest.of(0, 5));
+    }
+
+    public List<RegistrationSummary> getRecentPendingRegistrations() {
+        return registrationRepository.findRecentSummaries("PENDING", PageRequest.of(0, 10));
+    }
+
     public List<Registration> getUserRegistrations(User user) {
         return registrationRepository.findByUser(user);
     }
 
     @Transactional
-    public Registration updateRegistrationStatus(Long registrationId, String status, User admin) {
+    public Registration updateRegistrationStatus(Long registrationId, String status, SessionUser admin) {
 //        if (!admin.getRole().equals("ADMIN")) {
 //            throw new RuntimeException("Only admins can update registration status");
 //        }
@@ -56,24 +114,106 @@ public class RegistrationService {
         Registration registration = registrationRepository.findById(registrationId)
                 .orElseThrow(() -> new RuntimeException("Registration not found"));
 
-        registration.setStatus(status);
-        return registrationRepository.save(registration);
+        String previousStatus = registration.getStatus();
+        if (Objects.equals(previousStatus, status)) {
+            return registration;
+        }
+        Long eventId = registration.getEvent().getId();
+        if (!SeatAllocator.holdsSeat(previousStatus) && SeatAllocator.holdsSeat(status)
+                && !seatAllocator.tryReserve(eventId)) {
+            throw new RuntimeException("Event is full");
+        }
+        if (SeatAllocator.holdsSeat(previousStatus) && !SeatAllocator.holdsSeat(status)) {
+            seatAllocator.release(eventId);
+        }
+        changeStatus(registration, previousStatus, status);
+        return registration;
     }
 //
     @Transactional
-    public Registration updateRegistrationStatus(Long registrationId, String status, String comment, User admin) {
+    public Registration updateRegistrationStatus(Long registrationId, String status, String comment, SessionUser admin) {
         // comment is accepted but not persisted (Registration has no comment field)
         return updateRegistrationStatus(registrationId, status, admin);
     }
 
+    /**
+     * Moves the given registrations to {@code status} with one UPDATE per event
+     * and current status instead of loading and saving each row. Seats are
+     * claimed or returned per event in the same transaction; if an event does
+     * not have enough seats left, nothing is changed. Returns the number of
+     * registrations whose status changed.
+     */
+    @Transactional
+    public int updateRegistrationStatuses(Collection<Long> registrationIds, String status) {
+        checkModerationStatus(status);
+        if (registrationIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<String>> statusesByEvent = new TreeMap<>();
+        for (Object[] row : registrationRepository.findEventIdsAndStatuses(registrationIds)) {
+            statusesByEvent.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        int updated = 0;
+        for (Map.Entry<Long, List<String>> entry : statusesByEvent.entrySet()) {
+            Long eventId = entry.getKey();
+            updated += moveStatuses(eventId, entry.getValue(), status,
+                    from -> registrationRepository.updateStatus(eventId, registrationIds, from, status));
+        }
+        return updated;
+    }
+
+    /**
+     * Moves every registration of the event that has status {@code fromStatus}
+     * to {@code status}; see {@link #updateRegistrationStatuses(Collection, String)}.
+     * Both must be moderation statuses, so registrations their students
+     * cancelled are never swept up and given seats again.
+     */
+    @Transactional
+    public int updateEventRegistrationStatuses(Long eventId, String fromStatus, String status) {
+        checkModerationStatus(status);
+        checkModerationStatus(fromStatus);
+        return moveStatuses(eventId, List.of(fromStatus), status,
+                from -> registrationRepository.updateStatusForEvent(eventId, from, status));
+    }
+
+    private int moveStatuses(Long eventId, List<String> fromStatuses, String status, ToIntFunction<String> update) {
+        // lock the event first, in the same order as single registrations and seat
+        // changes, so bulk and one-off updates queue up instead of deadlocking
+        eventRepository.findByIdForUpdate(eventId)
+                .orElseThrow(() -> new RuntimeException("Event not found"));
+
+        int updated = 0;
+        int seatDelta = 0;
+        for (String from : fromStatuses) {
+            if (from == null || from.equals(status)) {
+                continue;
+            }
+            int count = update.applyAsInt(from);
+            updated += count;
+            if (!SeatAllocator.holdsSeat(from) && SeatAllocator.holdsSeat(status)) {
+                seatDelta += count;
+            } else if (SeatAllocator.holdsSeat(from) && !SeatAllocator.holdsSeat(status)) {
+                seatDelta -= count;
+            }
+            statisticsService.registrationStatusChanged(from, status, count);
+        }
+
+        if (seatDelta > 0 && !seatAllocator.tryReserve(eventId, seatDelta)) {
+            throw new RuntimeException("Not enough seats left to approve " + seatDelta + " registration(s)");
+        }
+        seatAllocator.release(eventId, -seatDelta);
+        return updated;
+    }
+
+    private void checkModerationStatus(String status) {
+        if (status == null || !MODERATION_STATUSES.contains(status)) {
+            throw new RuntimeException("Invalid registration status: " + status);
+        }
+    }
+
     public List<Registration> getPendingRegistrations() {
-        return registrationRepository.findAll().stream()
-                .filter(r -> "PENDING".equals(r.getStatus()))
-                .collect(Collectors.toList());
-   }
-    
-    public List<Registration> getPendingRegistrations(Event event) {
-        return registrationRepository.findByEventAndStatus(event, "PENDING");
+        return registrationRepository.findByStatus("PENDING");
     }
     
     public Registration findByEventAndUser(Event event, User user) {
@@ -82,35 +222,71 @@ public class RegistrationService {
 
 
     public List<Registration> getRegistrationsByDateRange(LocalDateTime start, LocalDateTime end) {
-        return registrationRepository.findAll().stream()
-                .filter(r -> r.getRegistrationDate() != null &&
-                        (r.getRegistrationDate().isEqual(start) || r.getRegistrationDate().isAfter(start)) &&
-                        (r.getRegistrationDate().isEqual(end) || r.getRegistrationDate().isBefore(end)))
-                .collect(Collectors.toList());
-    }
-
-    public byte[] exportRegistrations(Long eventId, String format) {
-        List<Registration> regs = (eventId == null)
-                ? getAllRegistrations()
-                : registrationRepository.findByEvent(getEventById(eventId));
-
-        // Simple CSV export for now
-        StringBuilder sb = new StringBuilder();
-        sb.append("Registration ID,Event ID,Event Title,User ID,Username,Email,Status,Date\n");
-        for (Registration r : regs) {
-            sb.append(r.getId()).append(',')
-              .append(r.getEvent().getId()).append(',')
-              .append(escapeCsv(r.getEvent().getTitle())).append(',')
-              .append(r.getUser().getId()).append(',')
-              .append(escapeCsv(r.getUser().getUsername())).append(',')
-              .append(escapeCsv(r.getUser().getEmail())).append(',')
-              .append(r.getStatus()).append(',')
-              .append(r.getRegistrationDate()).append('\n');
-        }
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
-    }
-
-    private String escapeCsv(String s) {
+        return registrationRepository.findByRegistrationDateBetween(start, end);
+    }
+
+    /**
+     * Filtered admin listing; null or blank filters are ignored.
+     */
+    public List<RegistrationSummary> searchRegistrations(Long eventId, String status, String department) {
+        return registrationRepository.search(eventId,
+                (status == null || status.isEmpty()) ? null : status,
+                (department == null || department.isEmpty()) ? null : department);
+    }
+
+    public Registration getRegistrationById(Long registrationId) {
+        return registrationRepository.findById(registrationId)
+                .orElseThrow(() -> new RuntimeException("Registration not found"));
+    }
+
+    /**
+     * Writes registrations for one event (or all events when eventId is null) as
+     * CSV directly to the given stream. Rows are pulled from a database cursor one
+     * at a time, so memory use does not depend on the number of registrations.
+     */
+    @Transactional(readOnly = true)
+    public void exportRegistrationsCsv(Long eventId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("Registration ID,Event ID,Event Title,User ID,Username,Email,Status,Date\n");
+        try (Stream<RegistrationExportRow> rows = registrationRepository.streamExportRows(eventId)) {
+            Iterator<RegistrationExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                RegistrationExportRow r = it.next();
+                writer.append(String.valueOf(r.getRegistrationId())).append(',')
+                      .append(String.valueOf(r.getEventId())).append(',')
+                      .append(escapeCsv(r.getEventTitle())).append(',')
+                      .append(String.valueOf(r.getUserId())).append(',')
+                      .append(escapeCsv(r.getUsername())).append(',')
+                      .append(escapeCsv(r.getEmail())).append(',')
+                      .append(r.getStatus()).append(',')
+                      .append(String.valueOf(r.getRegistrationDate())).append('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Same rows as {@link #exportRegistrationsCsv}, written as a single-sheet
+     * XLSX workbook. rowsWritten is advanced as rows are written so callers can
+     * report progress.
+     */
+    @Transactional(readOnly = true)
+    public void exportRegistrationsXlsx(Long eventId, OutputStream out, AtomicLong rowsWritten) throws IOException {
+        try (XlsxWriter xlsx = new XlsxWriter(out, "Registrations");
+             Stream<RegistrationExportRow> rows = registrationRepository.streamExportRows(eventId)) {
+            xlsx.writeRow("Registration ID", "Event ID", "Event Title", "User ID", "Username", "Email", "Status", "Date");
+            Iterator<RegistrationExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                RegistrationExportRow r = it.next();
+                xlsx.writeRow(r.getRegistrationId(), r.getEventId(), r.getEventTitle(),
+                        r.getUserId(), r.getUsername(), r.getEmail(), r.getStatus(),
+                        r.getRegistrationDate() == null ? null : r.getRegistrationDate().toString());
+                rowsWritten.incrementAndGet();
+            }
+        }
+    }
+
+    static String escapeCsv(String s) {
         if (s == null) return "";
         if (s.contains(",") || s.contains("\n") || s.contains("\"")) {
             return '"' + s.replace("\"", "\"\"") + '"';
@@ -118,17 +294,8 @@ public class RegistrationService {
         return s;
     }
 
-    // helper to resolve event when exporting by id
-    private Event getEventById(Long eventId) {
-        return registrationRepository.findAll().stream()
-                .map(Registration::getEvent)
-                .filter(e -> e != null && e.getId().equals(eventId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Event not found: " + eventId));
-    }
-
     @Transactional
-    public void cancelRegistration(Long registrationId, User user) {
+    public void cancelRegistration(Long registrationId, SessionUser user) {
         Registration registration = registrationRepository.findById(registrationId)
                 .orElseThrow(() -> new RuntimeException("Registration not found"));
 
@@ -136,8 +303,29 @@ public class RegistrationService {
             throw new RuntimeException("Not authorized to cancel this registration");
         }
 
-        registration.setStatus("CANCELLED");
-        registrationRepository.save(registration);
+        String previousStatus = registration.getStatus();
+        if ("CANCELLED".equals(previousStatus)) {
+            return;
+        }
+        if (SeatAllocator.holdsSeat(previousStatus)) {
+            seatAllocator.release(registration.getEvent().getId());
+        }
+        changeStatus(registration, previousStatus, "CANCELLED");
+    }
+
+    /**
+     * Writes the new status only if the row still has the one the seats were
+     * moved for. The seat update came first, so the event row is locked before
+     * the registration row, the order bulk moderation uses; a change that lost
+     * the race throws and its seat update is rolled back with it.
+     */
+    private void changeStatus(Registration registration, String previousStatus, String status) {
+        if (previousStatus == null
+                || registrationRepository.updateStatusIfCurrent(registration.getId(), previousStatus, status) == 0) {
+            throw new RuntimeException("The registration was changed meanwhile, please reload and try again");
+        }
+        registration.setStatus(status);
+        statisticsService.registrationStatusChanged(previousStatus, status);
     }
     
 
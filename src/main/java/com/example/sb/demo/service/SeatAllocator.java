@@ -0,0 +1,157 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces Event.maxParticipants. A seat is taken with a single conditional
+ * UPDATE on the event row, so the check and the increment are one atomic step
+ * in the database and concurrent registrations can never oversell. Events found
+ * full are remembered briefly in memory so a registration storm on a sold-out
+ * event is rejected without touching the database.
+ * <p>
+ * Seat updates go through plain JDBC rather than JPQL bulk updates: Hibernate
+ * answers a JPQL update by emptying the whole Event second-level cache region,
+ * which would happen on every registration. Only the changed event is evicted.
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatAllocator {
+    private static final Set<String> SEAT_HOLDING_STATUSES = Set.of("PENDING", "APPROVED");
+    private static final long SOLD_OUT_TTL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // event id -> System.nanoTime() when a reservation last failed
+    private final Map<Long, Long> soldOutSince = new ConcurrentHashMap<>();
+
+    public static boolean holdsSeat(String status) {
+        return status != null && SEAT_HOLDING_STATUSES.contains(status);
+    }
+
+    /**
+     * Recomputes every event's seat count from its registrations, correcting
+     * rows created before seats were tracked.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recount() {
+        eventRepository.recountSeats();
+        soldOutSince.clear();
+    }
+
+    /**
+     * True if a reservation for this event failed within the last moments; lets
+     * callers reject before doing any database work.
+     */
+    public boolean isKnownSoldOut(Long eventId) {
+        Long since = soldOutSince.get(eventId);
+        return since != null && System.nanoTime() - since < SOLD_OUT_TTL_NANOS;
+    }
+
+    /**
+     * Takes one seat, returning false when the event is full. Must be called in
+     * the transaction that creates the registration: the event row stays locked
+     * until it commits, and the seat is returned if it rolls back.
+     */
+    @Transactional
+    public boolean tryReserve(Long eventId) {
+        if (isKnownSoldOut(eventId)) {
+            return false;
+        }
+        if (reserveSeats(eventId, 1)) {
+            return true;
+        }
+        soldOutSince.put(eventId, System.nanoTime());
+        return false;
+    }
+
+    /**
+     * Takes {@code count} seats at once, all or nothing. Same transaction rules
+     * as {@link #tryReserve(Long)}.
+     */
+    @Transactional
+    public boolean tryReserve(Long eventId, int count) {
+        if (count <= 0) {
+            return true;
+        }
+        if (isKnownSoldOut(eventId)) {
+            return false;
+        }
+        return reserveSeats(eventId, count);
+    }
+
+    /**
+     * Unconditional increment for callers that hold the event row lock and have
+     * already checked capacity themselves.
+     */
+    @Transactional
+    public void addSeats(Long eventId, int count) {
+        updateSeats(eventId, "UPDATE events SET seats_taken = seats_taken + ? WHERE id = ?", count, eventId);
+    }
+
+    @Transactional
+    public void release(Long eventId) {
+        release(eventId, 1);
+    }
+
+    @Transactional
+    public void release(Long eventId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        // every seat given back was taken, so a count that would go negative means one was released twice
+        if (updateSeats(eventId, "UPDATE events SET seats_taken = seats_taken - ? WHERE id = ? AND seats_taken >= ?",
+                count, eventId, count) == 0) {
+            throw new IllegalStateException("Releasing " + count + " seat(s) of event " + eventId
+                    + " would leave fewer than zero taken");
+        }
+        AfterCommit.run(() -> soldOutSince.remove(eventId));
+    }
+
+    /**
+     * For callers that found the event full under its row lock; recorded once
+     * their transaction commits.
+     */
+    public void markSoldOut(Long eventId) {
+        AfterCommit.run(() -> soldOutSince.put(eventId, System.nanoTime()));
+    }
+
+    public void capacityChanged(Long eventId) {
+        AfterCommit.run(() -> soldOutSince.remove(eventId));
+    }
+
+    private boolean reserveSeats(Long eventId, int count) {
+        return updateSeats(eventId, """
+                UPDATE events SET seats_taken = seats_taken + ?
+                WHERE id = ? AND (max_participants IS NULL OR seats_taken + ? <= max_participants)
+                """, count, eventId, count) == 1;
+    }
+
+    private int updateSeats(Long eventId, String sql, Object... args) {
+        int rows = jdbcTemplate.update(sql, args);
+        if (rows > 0) {
+            // evict now so this transaction cannot be served the old count, and again
+            // after commit in case a concurrent reader cached it in between
+            Cache cache = entityManagerFactory.getCache();
+            cache.evict(Event.class, eventId);
+            AfterCommit.run(() -> cache.evict(Event.class, eventId));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.config.SqlRequestStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running SQL totals per route ("GET /events/{id}"), fed by SqlBudgetFilter
+ * once a request has finished. The same numbers are published as
+ * http.server.requests.sql.* meters tagged like http.server.requests. Empty
+ * unless app.sql-budget.enabled is set.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlRouteStatistics {
+    private final MeterRegistry registry;
+    private final Map<String, RouteTotals> routes = new ConcurrentHashMap<>();
+
+    private static class RouteTotals {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder jdbcNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicInteger maxStatements = new AtomicInteger();
+    }
+
+    public void record(String method, String uri, SqlRequestStats stats) {
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .tag("method", method).tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("http.server.requests.sql.rows")
+                .tag("method", method).tag("uri", uri)
+                .register(registry)
+                .record(stats.getRows());
+        Timer.builder("http.server.requests.sql.time")
+                .tag("method", method).tag("uri", uri)
+                .register(registry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        RouteTotals totals = routes.computeIfAbsent(method + " " + uri, r -> new RouteTotals());
+        totals.requests.increment();
+        totals.statements.add(stats.getStatements());
+        totals.jdbcNanos.add(stats.getJdbcNanos());
+        totals.rows.add(stats.getRows());
+        totals.maxStatements.accumulateAndGet(stats.getStatements(), Math::max);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        routes.forEach((route, totals) -> {
+            long requests = totals.requests.sum();
+            long statements = totals.statements.sum();
+            result.put(route, Map.of(
+                    "requests", requests,
+                    "statements", statements,
+                    "avgStatements", requests == 0 ? 0.0 : (double) statements / requests,
+                    "maxStatements", totals.maxStatements.get(),
+                    "jdbcMillis", totals.jdbcNanos.sum() / 1_000_000,
+                    "rows", totals.rows.sum()));
+        });
+        return result;
+    }
+}
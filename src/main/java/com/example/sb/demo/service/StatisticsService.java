@@ -0,0 +1,215 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.RegistrationRepository;
+import com.example.sb.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard counters kept in memory and updated from the write paths in
+ * EventService, RegistrationService and UserService, so the admin dashboard
+ * never has to load whole tables. Counters are applied after commit and are
+ * periodically reconciled against the database to correct any drift (for
+ * example writes made by another instance or directly in SQL).
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticsService {
+    private final EventRepository eventRepository;
+    private final RegistrationRepository registrationRepository;
+    private final UserRepository userRepository;
+
+    private final AtomicLong totalEvents = new AtomicLong();
+    private final Map<String, AtomicLong> registrationsByStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> usersByRole = new ConcurrentHashMap<>();
+
+    // events still in the future, ordered by date so expired ones are polled off the front
+    private final ConcurrentSkipListSet<ScheduledEvent> upcoming = new ConcurrentSkipListSet<>();
+    private final Map<Long, ScheduledEvent> upcomingById = new ConcurrentHashMap<>();
+
+    private record ScheduledEvent(LocalDateTime eventDate, Long id) implements Comparable<ScheduledEvent> {
+        @Override
+        public int compareTo(ScheduledEvent other) {
+            int byDate = eventDate.compareTo(other.eventDate);
+            return byDate != 0 ? byDate : id.compareTo(other.id);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        totalEvents.set(eventRepository.count());
+        replaceCounts(registrationsByStatus, registrationRepository.countGroupedByStatus());
+        replaceCounts(usersByRole, userRepository.countGroupedByRole());
+
+        List<Object[]> dates = eventRepository.findUpcomingEventDates(LocalDateTime.now());
+        synchronized (upcoming) {
+            upcoming.clear();
+            upcomingById.clear();
+            for (Object[] row : dates) {
+                schedule((Long) row[0], (LocalDateTime) row[1]);
+            }
+        }
+    }
+
+    public Map<String, Long> snapshot() {
+        long upcomingEvents;
+        synchronized (upcoming) {
+            expirePastEvents();
+            upcomingEvents = upcoming.size();
+        }
+        long events = totalEvents.get();
+
+        return Map.of(
+                "totalEvents", events,
+                "upcomingEvents", upcomingEvents,
+                "pastEvents", Math.max(0, events - upcomingEvents),
+                "totalRegistrations", sum(registrationsByStatus),
+                "pendingRegistrations", count(registrationsByStatus, "PENDING"),
+                "approvedRegistrations", count(registrationsByStatus, "APPROVED"),
+                "rejectedRegistrations", count(registrationsByStatus, "REJECTED"),
+                "totalUsers", sum(usersByRole),
+                "totalStudents", count(usersByRole, "STUDENT"),
+                "totalAdmins", count(usersByRole, "ADMIN")
+        );
+    }
+
+    public void eventCreated(Event event) {
+        Long id = event.getId();
+        LocalDateTime eventDate = event.getEventDate();
+        AfterCommit.run(() -> {
+            totalEvents.incrementAndGet();
+            synchronized (upcoming) {
+                schedule(id, eventDate);
+            }
+        });
+    }
+
+    public void eventRescheduled(Event event) {
+        Long id = event.getId();
+        LocalDateTime eventDate = event.getEventDate();
+        AfterCommit.run(() -> {
+            synchronized (upcoming) {
+                unschedule(id);
+                schedule(id, eventDate);
+            }
+        });
+    }
+
+    /**
+     * @param removedRegistrations status counts of the registrations removed
+     *                             together with the event by cascade
+     */
+    public void eventDeleted(Long eventId, Map<String, Long> removedRegistrations) {
+        AfterCommit.run(() -> {
+            totalEvents.decrementAndGet();
+            synchronized (upcoming) {
+                unschedule(eventId);
+            }
+            removedRegistrations.forEach((status, count) -> adjust(registrationsByStatus, status, -count));
+        });
+    }
+
+    public void registrationCreated(String status) {
+        AfterCommit.run(() -> adjust(registrationsByStatus, status, 1));
+    }
+
+    public void registrationsCreated(String status, long count) {
+        AfterCommit.run(() -> adjust(registrationsByStatus, status, count));
+    }
+
+    public void registrationStatusChanged(String from, String to) {
+        registrationStatusChanged(from, to, 1);
+    }
+
+    public void registrationStatusChanged(String from, String to, long count) {
+        if (count == 0 || (from != null && from.equals(to))) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            adjust(registrationsByStatus, from, -count);
+            adjust(registrationsByStatus, to, count);
+        });
+    }
+
+    public void userCreated(String role) {
+        AfterCommit.run(() -> adjust(usersByRole, role, 1));
+    }
+
+    public void usersCreated(String role, long count) {
+        AfterCommit.run(() -> adjust(usersByRole, role, count));
+    }
+
+    public void userRoleChanged(String from, String to) {
+        if (from != null && from.equals(to)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            adjust(usersByRole, from, -1);
+            adjust(usersByRole, to, 1);
+        });
+    }
+
+    private void schedule(Long id, LocalDateTime eventDate) {
+        if (id == null || eventDate == null || !eventDate.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        ScheduledEvent scheduled = new ScheduledEvent(eventDate, id);
+        upcoming.add(scheduled);
+        upcomingById.put(id, scheduled);
+    }
+
+    private void unschedule(Long id) {
+        ScheduledEvent scheduled = upcomingById.remove(id);
+        if (scheduled != null) {
+            upcoming.remove(scheduled);
+        }
+    }
+
+    private void expirePastEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        while (!upcoming.isEmpty() && !upcoming.first().eventDate().isAfter(now)) {
+            upcomingById.remove(upcoming.pollFirst().id());
+        }
+    }
+
+    private static void replaceCounts(Map<String, AtomicLong> counters, List<Object[]> rows) {
+        Map<String, Long> fresh = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                fresh.put((String) row[0], (Long) row[1]);
+            }
+        }
+        counters.keySet().retainAll(fresh.keySet());
+        fresh.forEach((key, value) -> counters.computeIfAbsent(key, k -> new AtomicLong()).set(value));
+    }
+
+    private static void adjust(Map<String, AtomicLong> counters, String key, long delta) {
+        if (key != null) {
+            counters.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static long count(Map<String, AtomicLong> counters, String key) {
+        AtomicLong counter = counters.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static long sum(Map<String, AtomicLong> counters) {
+        return counters.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+}
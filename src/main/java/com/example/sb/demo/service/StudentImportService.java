@@ -0,0 +1,265 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.StudentImportReport;
+import com.example.sb.demo.entity.User;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk student import from a CSV with a header row and RegisterRequest-shaped
+ * columns (username, password, email, fullName, studentId, department, year).
+ * Rows are streamed and handled in chunks: one query finds which of a chunk's
+ * usernames and emails already exist, and the remaining rows are inserted as a
+ * single JDBC batch in their own transaction. A bad row is reported by line
+ * number and never stops the import. Memory is bounded by the chunk size: a
+ * repeat within the chunk is reported as appearing earlier in the file, and a
+ * repeat of a row from an earlier chunk, which is committed by then, as already
+ * existing.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "app.service", histogram = true)
+public class StudentImportService {
+    private static final List<String> REQUIRED_COLUMNS = List.of("username", "password", "email", "fullname");
+    private static final List<String> OPTIONAL_COLUMNS = List.of("studentid", "department", "year");
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final int MAX_LENGTH = 255;
+
+    private static final String INSERT_SQL = "INSERT INTO users (username, password, email, role, full_name, "
+            + "student_id, department, year, version) VALUES (?, ?, ?, 'STUDENT', ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final StatisticsService statisticsService;
+    private final UserSearchIndex userSearchIndex;
+    private final DepartmentDictionary departmentDictionary;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private TransactionTemplate transactionTemplate;
+
+    private record Row(long line, String username, String password, String email, String fullName,
+                       String studentId, String department, String year) {
+    }
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public StudentImportReport importStudents(InputStream csv) throws IOException {
+        StudentImportReport report = new StudentImportReport();
+        // the current chunk's usernames and emails, compared case-insensitively like the database collation
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new RuntimeException("The file is empty");
+            }
+            Map<String, Integer> columns = columns(header);
+
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+                report.setRows(report.getRows() + 1);
+                Row row = toRow(reader.getLine(), record, columns);
+
+                String problem = validate(row);
+                if (problem == null && !seenUsernames.add(row.username().toLowerCase(Locale.ROOT))) {
+                    problem = "Username appears earlier in the file";
+                }
+                if (problem == null && !seenEmails.add(row.email().toLowerCase(Locale.ROOT))) {
+                    problem = "Email appears earlier in the file";
+                }
+                if (problem != null) {
+                    reject(report, row, problem);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                    seenUsernames.clear();
+                    seenEmails.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        }
+        return report;
+    }
+
+    private void importChunk(List<Row> chunk, StudentImportReport report) {
+        Set<String> existingUsernames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        List<Object> args = new ArrayList<>(chunk.size() * 2);
+        chunk.forEach(row -> args.add(row.username()));
+        chunk.forEach(row -> args.add(row.email()));
+        jdbcTemplate.query("SELECT username, email FROM users WHERE username IN (" + placeholders + ") "
+                        + "OR email IN (" + placeholders + ")",
+                rs -> {
+                    existingUsernames.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                    existingEmails.add(rs.getString(2).toLowerCase(Locale.ROOT));
+                },
+                args.toArray());
+
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existingUsernames.contains(row.username().toLowerCase(Locale.ROOT))) {
+                reject(report, row, "Username already exists");
+            } else if (existingEmails.contains(row.email().toLowerCase(Locale.ROOT))) {
+                reject(report, row, "Email already exists");
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<Row> inserted = new ArrayList<>(fresh.size());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, fresh.stream().map(StudentImportService::insertArgs).toList()));
+            inserted.addAll(fresh);
+        } catch (DataIntegrityViolationException e) {
+            // someone signed up with one of these usernames or emails since the check; find it row by row
+            for (Row row : fresh) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, insertArgs(row));
+                    inserted.add(row);
+                } catch (DuplicateKeyException duplicate) {
+                    reject(report, row, duplicateReason(duplicate));
+                } catch (DataIntegrityViolationException invalid) {
+                    reject(report, row, invalid.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        report.setImported(report.getImported() + inserted.size());
+        statisticsService.usersCreated("STUDENT", inserted.size());
+        userSearchIndex.indexUsernames(inserted.stream().map(Row::username).toList());
+        inserted.forEach(row -> departmentDictionary.add(row.department()));
+        // cached findByUsername results, including "no such user", predate these rows
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+
+    private void reject(StudentImportReport report, Row row, String reason) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new StudentImportReport.RowError(row.line(), row.username(), reason));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    /** Which unique key the row broke, from MySQL's "Duplicate entry ... for key 'users.uk_...'". */
+    private static String duplicateReason(DuplicateKeyException duplicate) {
+        String message = String.valueOf(duplicate.getMostSpecificCause().getMessage());
+        if (message.contains(User.EMAIL_KEY)) {
+            return "Email already exists";
+        }
+        if (message.contains(User.USERNAME_KEY)) {
+            return "Username already exists";
+        }
+        return message;
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // accept fullName, full_name, "Full Name" and a leading byte order mark
+            String name = header.get(i).replace("\uFEFF", "").replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Missing column(s): " + String.join(", ", missing)
+                    + ". Expected a header with " + String.join(", ", REQUIRED_COLUMNS) + " and optionally "
+                    + String.join(", ", OPTIONAL_COLUMNS));
+        }
+        return columns;
+    }
+
+    private Row toRow(long line, List<String> record, Map<String, Integer> columns) {
+        return new Row(line,
+                field(record, columns, "username"),
+                field(record, columns, "password"),
+                field(record, columns, "email"),
+                field(record, columns, "fullname"),
+                field(record, columns, "studentid"),
+                departmentDictionary.canonical(field(record, columns, "department")),
+                field(record, columns, "year"));
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String validate(Row row) {
+        if (row.username() == null || row.password() == null || row.email() == null || row.fullName() == null) {
+            return "username, password, email and fullName are required";
+        }
+        if (!EMAIL.matcher(row.email()).matches()) {
+            return "Invalid email address";
+        }
+        for (String value : new String[]{row.username(), row.password(), row.email(), row.fullName(),
+                row.studentId(), row.department(), row.year()}) {
+            if (value != null && value.length() > MAX_LENGTH) {
+                return "Values are limited to " + MAX_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private static Object[] insertArgs(Row row) {
+        // passwords are stored as registerUser stores them
+        return new Object[]{row.username(), row.password(), row.email(), row.fullName(),
+                row.studentId(), row.department(), row.year()};
+    }
+}
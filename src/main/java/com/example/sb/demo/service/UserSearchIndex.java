@@ -0,0 +1,266 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.UserSearchDocument;
+import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over username, full name and email, answering the
+ * admin user search's case-insensitive substring matches.
+ *
+ * A query intersects the id lists of its trigrams, starting from the shortest,
+ * and confirms each candidate against the stored text, so the work follows the
+ * number of candidates rather than the number of users. Queries shorter than
+ * a trigram would have to merge the lists of every trigram they start, close to
+ * all users for a single letter, so they are not answered. Built once when the
+ * application is ready and kept current by UserService and
+ * StudentImportService; changes are applied after their transaction commits,
+ * and those committed while a rebuild loads are replayed onto the new index.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSearchIndex {
+    private static final int GRAM = 3;
+    public static final int MIN_QUERY_LENGTH = GRAM;
+    // separates fields, so no match spans two of them
+    private static final char SEPARATOR = '\0';
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // trigram -> ascending ids of the users whose text contains it
+    private TreeMap<String, IdList> grams = new TreeMap<>();
+    private Map<Long, Document> documents = new HashMap<>();
+    // documents committed while rebuild() is loading; null when no rebuild is running
+    private List<UserSearchDocument> pendingChanges;
+
+    private record Document(String text, String role) {
+    }
+
+    public record Hits(int total, List<Long> userIds) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TreeMap<String, IdList> newGrams = new TreeMap<>();
+        Map<Long, Document> newDocuments = new HashMap<>();
+        boolean loaded = false;
+        try {
+            // ids arrive in ascending order, so every id list is filled by appending
+            for (UserSearchDocument doc : userRepository.findAllSearchDocuments()) {
+                addDocument(doc, newGrams, newDocuments);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    // the load may have read its rows before these changes committed
+                    for (UserSearchDocument doc : pendingChanges) {
+                        removeDocument(doc.getId(), newGrams, newDocuments);
+                        addDocument(doc, newGrams, newDocuments);
+                    }
+                    grams = newGrams;
+                    documents = newDocuments;
+                }
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void index(User user) {
+        index(List.of(new UserSearchDocument(
+                user.getId(), user.getUsername(), user.getFullName(), user.getEmail(), user.getRole())));
+    }
+
+    /** For users inserted with plain SQL, whose ids the caller does not have. */
+    public void indexUsernames(Collection<String> usernames) {
+        index(userRepository.findSearchDocumentsByUsernameIn(usernames));
+    }
+
+    public void index(List<UserSearchDocument> docs) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                for (UserSearchDocument doc : docs) {
+                    removeDocument(doc.getId(), grams, documents);
+                    addDocument(doc, grams, documents);
+                }
+                if (pendingChanges != null) {
+                    pendingChanges.addAll(docs);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Users whose username, full name or email contains the query, by ascending
+     * id; nothing for queries shorter than {@link #MIN_QUERY_LENGTH}.
+     */
+    public Hits search(String query, String role, int offset, int limit) {
+        String needle = normalize(query);
+        if (needle.length() < MIN_QUERY_LENGTH || offset < 0 || limit <= 0) {
+            return new Hits(0, List.of());
+        }
+
+        int total = 0;
+        List<Long> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(needle)) {
+                Document doc = documents.get(id);
+                if (doc == null || (role != null && !role.equals(doc.role())) || !doc.text().contains(needle)) {
+                    continue;
+                }
+                if (total >= offset && ids.size() < limit) {
+                    ids.add(id);
+                }
+                total++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Hits(total, ids);
+    }
+
+    private long[] candidates(String needle) {
+        List<IdList> lists = new ArrayList<>();
+        for (String gram : trigrams(needle)) {
+            IdList list = grams.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IdList::size));
+
+        IdList shortest = lists.get(0);
+        long[] ids = new long[shortest.size];
+        int found = 0;
+        next:
+        for (int i = 0; i < shortest.size; i++) {
+            long id = shortest.ids[i];
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) {
+                    continue next;
+                }
+            }
+            ids[found++] = id;
+        }
+        return Arrays.copyOf(ids, found);
+    }
+
+    private static void addDocument(UserSearchDocument doc, Map<String, IdList> grams, Map<Long, Document> documents) {
+        String text = normalize(doc.getUsername()) + SEPARATOR + normalize(doc.getFullName()) + SEPARATOR
+                + normalize(doc.getEmail());
+        for (String gram : trigrams(text)) {
+            grams.computeIfAbsent(gram, k -> new IdList()).add(doc.getId());
+        }
+        documents.put(doc.getId(), new Document(text, doc.getRole()));
+    }
+
+    private static void removeDocument(Long userId, Map<String, IdList> grams, Map<Long, Document> documents) {
+        Document doc = documents.remove(userId);
+        if (doc == null) {
+            return;
+        }
+        for (String gram : trigrams(doc.text())) {
+            IdList list = grams.get(gram);
+            if (list != null) {
+                list.remove(userId);
+                if (list.size == 0) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    /** Whether a query is long enough to be searched; shorter ones match nothing. */
+    public static boolean isSearchable(String query) {
+        return normalize(query).length() >= MIN_QUERY_LENGTH;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.replace(String.valueOf(SEPARATOR), "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Ascending ids in a growable primitive array; new users have the highest ids, so adds append. */
+    private static final class IdList {
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, id);
+            } else {
+                insert(size, id);
+            }
+        }
+
+        void remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        private void insert(int at, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+}
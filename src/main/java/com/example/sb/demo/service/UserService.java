@@ -2,26 +2,64 @@ package com.example.sb.demo.service;
 
 import com.example.sb.demo.dto.LoginRequest;
 import com.example.sb.demo.dto.RegisterRequest;
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.dto.UserSearchResult;
 import com.example.sb.demo.entity.User;
 import com.example.sb.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.Optional;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "app.service", histogram = true)
 public class UserService {
     private final UserRepository userRepository;
+    private final StatisticsService statisticsService;
+    private final UserSearchIndex userSearchIndex;
+    private final DepartmentDictionary departmentDictionary;
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int MAX_PAGE_SIZE = 100;
     
-    private static final String USER_SESSION_KEY = "user_id";
-    private static final String USER_ROLE_KEY = "user_role";
+    private static final String PRINCIPAL_KEY = "principal";
+    // what sessions held before the principal; upgraded on their next request
+    private static final List<String> LEGACY_SESSION_KEYS = List.of("user_id", "user_role", "user");
+
+    @Value("${app.session.version-ttl-seconds:5}")
+    private long versionTtlSeconds;
+
+    @Value("${app.session.max-cached-versions:10000}")
+    private long maxCachedVersions;
+
+    // user id -> row version read recently, so most requests validate the session
+    // without a query; entries expire, so changes made by other instances or
+    // outside this service are noticed within the TTL
+    private Cache<Long, Long> userVersions;
+
+    @PostConstruct
+    void start() {
+        userVersions = Caffeine.newBuilder()
+                .maximumSize(maxCachedVersions)
+                .expireAfterWrite(Duration.ofSeconds(versionTtlSeconds))
+                .build();
+    }
 
     @Transactional
     public User registerUser(RegisterRequest request) {
@@ -38,11 +76,15 @@ public class UserService {
         user.setEmail(request.getEmail());
         user.setFullName(request.getFullName());
         user.setStudentId(request.getStudentId());
-        user.setDepartment(request.getDepartment());
+        user.setDepartment(departmentDictionary.canonical(request.getDepartment()));
         user.setYear(request.getYear());
         user.setRole("STUDENT"); // Default role for registration
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        statisticsService.userCreated(saved.getRole());
+        userSearchIndex.index(saved);
+        departmentDictionary.add(saved.getDepartment());
+        return saved;
     }
 
     public Optional<User> authenticateUser(LoginRequest request) {
@@ -50,18 +92,101 @@ public class UserService {
                 .filter(user -> user.getPassword().equals(request.getPassword())); // In production, use proper password hashing
     }
 
+    /** The principal is the only thing the session holds about the user. */
     public void login(HttpSession session, User user) {
-        session.setAttribute(USER_SESSION_KEY, user.getId());
-        session.setAttribute(USER_ROLE_KEY, user.getRole());
+        session.setAttribute(PRINCIPAL_KEY, SessionUser.of(user));
+    }
+
+    /**
+     * Returns the session's principal, rebuilding it from the database when the
+     * user has been updated since it was stored. The version is read from the
+     * database at most once per TTL. Clears the session's principal if the user
+     * no longer exists. A session logged in before the principal existed holds
+     * only user_id; it is upgraded once instead of being logged out.
+     */
+    public Optional<SessionUser> resolvePrincipal(HttpSession session) {
+        SessionUser principal = (SessionUser) session.getAttribute(PRINCIPAL_KEY);
+        if (principal == null) {
+            return upgradeLegacySession(session);
+        }
+
+        Long version = currentVersion(principal.getId());
+        if (version != null && version == principal.getVersion()) {
+            return Optional.of(principal);
+        }
+
+        Optional<User> user = version == null ? Optional.empty() : userRepository.findById(principal.getId());
+        user.ifPresentOrElse(u -> login(session, u), () -> session.removeAttribute(PRINCIPAL_KEY));
+        return user.map(SessionUser::of);
+    }
+
+    private Optional<SessionUser> upgradeLegacySession(HttpSession session) {
+        Object userId = session.getAttribute("user_id");
+        if (userId == null) {
+            return Optional.empty();
+        }
+        LEGACY_SESSION_KEYS.forEach(session::removeAttribute);
+        Optional<User> user = userId instanceof Long id ? userRepository.findById(id) : Optional.empty();
+        user.ifPresent(u -> login(session, u));
+        return user.map(SessionUser::of);
+    }
+
+    public User getReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
+    private Long currentVersion(Long userId) {
+        // a missing user is not cached, so it is looked up again on the next request
+        return userVersions.get(userId, id -> userRepository.findVersionById(id).orElse(null));
+    }
+
+    private void versionChanged(User user) {
+        // read the version after commit, once the flush has incremented it
+        AfterCommit.run(() -> userVersions.put(user.getId(), user.getVersion()));
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /**
+     * One page of users by ascending id. A query matches any part of the
+     * username, full name or email and is answered by UserSearchIndex, so only
+     * the users on the page are loaded; without one, role filter and paging
+     * run in SQL. Queries shorter than UserSearchIndex.MIN_QUERY_LENGTH are
+     * rejected.
+     */
+    public UserSearchResult searchUsers(String query, String role, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        String roleFilter = role == null || role.isBlank() ? null : role;
+
+        if (query == null || query.isBlank()) {
+            PageRequest pageable = PageRequest.of(pageNumber, pageSize, Sort.by("id"));
+            Page<User> users = roleFilter == null
+                    ? userRepository.findAll(pageable)
+                    : userRepository.findByRole(roleFilter, pageable);
+            return new UserSearchResult(query, roleFilter, users.getContent(), pageNumber, pageSize,
+                    users.getTotalElements());
+        }
+
+        if (!UserSearchIndex.isSearchable(query)) {
+            throw new RuntimeException("Search needs at least " + UserSearchIndex.MIN_QUERY_LENGTH + " characters");
+        }
+        // a page far past the end must not wrap around to a negative offset
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+        UserSearchIndex.Hits hits = userSearchIndex.search(query, roleFilter, offset, pageSize);
+        List<User> users = hits.userIds().isEmpty()
+                ? List.of()
+                : userRepository.findAllById(hits.userIds()).stream()
+                        .sorted(Comparator.comparing(User::getId))
+                        .collect(Collectors.toList());
+        return new UserSearchResult(query, roleFilter, users, pageNumber, pageSize, hits.total());
+    }
+
     @Transactional
-    public User updateUserRole(Long userId, String role, User admin) {
-        if (!isAdmin(admin)) {
+    public User updateUserRole(Long userId, String role, SessionUser admin) {
+        if (!admin.isAdmin()) {
             throw new RuntimeException("Only admins can update user roles");
         }
 
@@ -72,13 +197,18 @@ public class UserService {
             throw new RuntimeException("Cannot modify your own role");
         }
 
+        String previousRole = user.getRole();
         user.setRole(role);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        statisticsService.userRoleChanged(previousRole, role);
+        userSearchIndex.index(saved);
+        versionChanged(saved);
+        return saved;
     }
 
     @Transactional
-    public User updateUserStatus(Long userId, boolean active, User admin) {
-        if (!isAdmin(admin)) {
+    public User updateUserStatus(Long userId, boolean active, SessionUser admin) {
+        if (!admin.isAdmin()) {
             throw new RuntimeException("Only admins can update user status");
         }
 
@@ -91,28 +221,18 @@ public class UserService {
 
         // Add an 'active' field to User entity and implement this
         // user.setActive(active);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        versionChanged(saved);
+        return saved;
     }
 
     public void logout(HttpSession session) {
-        session.removeAttribute(USER_SESSION_KEY);
+        session.removeAttribute(PRINCIPAL_KEY);
         session.invalidate();
     }
 
-    public Optional<User> getCurrentUser(HttpSession session) {
-        Object userId = session.getAttribute(USER_SESSION_KEY);
-        if (userId != null) {
-            return userRepository.findById((Long) userId);
-        }
-        return Optional.empty();
-    }
-
     public List<String> getAllDepartments() {
-        return userRepository.findAll().stream()
-                .map(User::getDepartment)
-                .filter(Objects::nonNull)
-                .distinct()
-                .collect(Collectors.toList());
+        return departmentDictionary.getDepartments();
     }
 
     /**
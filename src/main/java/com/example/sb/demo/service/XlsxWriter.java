@@ -0,0 +1,129 @@
+package com.example.sb.demo.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Minimal single-sheet XLSX writer. Rows are written as inline-string and
+ * numeric cells straight into the zipped worksheet part, so nothing but the
+ * current row is held in memory regardless of how many rows are written.
+ */
+public final class XlsxWriter implements Closeable {
+    public static final String MEDIA_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final int MAX_ROWS = 1_048_576; // Excel's sheet limit
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private static final String CONTENT_TYPES = XML_DECLARATION
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+            + "</Types>";
+
+    private static final String ROOT_RELS = XML_DECLARATION
+            + "<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>";
+
+    private static final String WORKBOOK_RELS = XML_DECLARATION
+            + "<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+            + "</Relationships>";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private int rowCount;
+
+    public XlsxWriter(OutputStream out, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(new BufferedOutputStream(out));
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+
+        writeEntry("[Content_Types].xml", CONTENT_TYPES);
+        writeEntry("_rels/.rels", ROOT_RELS);
+        writeEntry("xl/workbook.xml", XML_DECLARATION
+                + "<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><sheets>"
+                + "<sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/>"
+                + "</sheets></workbook>");
+        writeEntry("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write(XML_DECLARATION + "<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+    }
+
+    /**
+     * Appends one row. Numbers become numeric cells, null an empty cell and
+     * everything else an inline string.
+     */
+    public void writeRow(Object... cells) throws IOException {
+        if (rowCount == MAX_ROWS) {
+            throw new IllegalStateException("XLSX sheet limit of " + MAX_ROWS + " rows exceeded");
+        }
+        rowCount++;
+        writer.write("<row>");
+        for (Object cell : cells) {
+            if (cell == null) {
+                writer.write("<c/>");
+            } else if (cell instanceof Number) {
+                writer.write("<c><v>");
+                writer.write(cell.toString());
+                writer.write("</v></c>");
+            } else {
+                writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                writer.write(escape(cell.toString()));
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.close();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                // control characters other than tab and line breaks are not legal XML
+                default -> (c < 0x20 && c != '\t' && c != '\n' && c != '\r') ? "" : null;
+            };
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+                }
+                sb.append(replacement);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sb.demo.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the annotated test if it executes more SQL than declared. Everything the
+ * test method runs on its own thread is counted, MockMvc requests included;
+ * setup in {@code @BeforeEach} is not.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlBudgetExtension.class)
+public @interface SqlBudget {
+
+    /** Maximum number of statements. */
+    int statements();
+
+    /** Maximum number of result set rows read; negative for no limit. */
+    long rows() default -1;
+}
@@ -0,0 +1,40 @@
+package com.example.sb.demo.config;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * Opens a {@link SqlRequestStats} scope around a {@link SqlBudget} test and
+ * checks it against the budget, listing the statements on failure.
+ */
+public class SqlBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), SqlRequestStats.begin());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlRequestStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), SqlRequestStats.class);
+        stats.end();
+
+        SqlBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), SqlBudget.class)
+                .orElseThrow();
+        boolean overStatements = stats.getStatements() > budget.statements();
+        boolean overRows = budget.rows() >= 0 && stats.getRows() > budget.rows();
+        if (overStatements || overRows) {
+            StringBuilder message = new StringBuilder(String.format(
+                    "SQL budget exceeded: %d statements (budget %d), %d rows (budget %s), %.1f ms",
+                    stats.getStatements(), budget.statements(), stats.getRows(),
+                    budget.rows() < 0 ? "none" : String.valueOf(budget.rows()), stats.getJdbcMillis()));
+            for (String sql : stats.getSql()) {
+                message.append("\n  ").append(sql);
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+}
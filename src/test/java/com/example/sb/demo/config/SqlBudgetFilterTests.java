@@ -0,0 +1,91 @@
+package com.example.sb.demo.config;
+
+import com.example.sb.demo.service.SqlRouteStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SqlBudgetFilter with response headers on: ordinary responses are buffered and
+ * get the X-SQL-* headers, a streamed body reaches the client as it is written.
+ */
+class SqlBudgetFilterTests {
+
+    private final CountDownLatch finishExport = new CountDownLatch(1);
+    private MockMvc mvc;
+
+    @RestController
+    class ReportController {
+        @GetMapping("/page")
+        String page() {
+            return "page";
+        }
+
+        @GetMapping("/export")
+        StreamingResponseBody export() {
+            return out -> {
+                out.write("header\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                try {
+                    finishExport.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                out.write("row\n".getBytes(StandardCharsets.UTF_8));
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        SqlBudgetFilter filter = new SqlBudgetFilter(new SqlRouteStatistics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(filter, "responseHeaders", true);
+        mvc = MockMvcBuilders.standaloneSetup(new ReportController()).addFilters(filter).build();
+    }
+
+    @Test
+    void buffersOrdinaryResponsesForTheHeaders() throws Exception {
+        mvc.perform(get("/page"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-SQL-Statements", "0"))
+                .andExpect(content().string("page"));
+    }
+
+    @Test
+    void streamedBodiesAreNotBuffered() throws Exception {
+        MvcResult result = mvc.perform(get("/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // the first line is on its way while the export is still running
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (result.getResponse().getContentAsString().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(result.getResponse().getContentAsString()).isEqualTo("header\n");
+
+        finishExport.countDown();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("header\nrow\n"));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.sb.demo.controller;
+
+import com.example.sb.demo.config.SqlBudget;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.support.MySqlFixture;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * Holds the main pages to a fixed SQL budget over a dataset large enough that a
+ * per-row lazy load would blow it. Budgets are for warm caches: every page is
+ * requested once before measuring. Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.sql-budget.enabled=true"
+})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class SqlBudgetTests {
+
+    private static final int USERS = 200;
+    private static final int EVENTS = 60;
+    private static final int REGISTRANTS_PER_EVENT = 40;
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1);
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockHttpSession admin;
+    private MockHttpSession organizer;
+    private MockHttpSession student;
+
+    @BeforeEach
+    void seedAndWarmUp() throws Exception {
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM events", Long.class);
+        if (existing == null || existing == 0) {
+            seed();
+        }
+
+        admin = login(MySqlFixture.username(1));
+        organizer = login(MySqlFixture.username(2));  // created event 1
+        student = login(MySqlFixture.username(150));
+
+        for (String url : List.of("/admin/dashboard", "/events", "/events/1")) {
+            mvc.perform(get(url).session(admin));
+            mvc.perform(get(url).session(student));
+        }
+        mvc.perform(get("/events/1/registrations").session(organizer));
+    }
+
+    @Test
+    @SqlBudget(statements = 4)
+    void adminDashboard() throws Exception {
+        mvc.perform(get("/admin/dashboard").session(admin))
+                .andExpect(status().isOk())
+                .andExpect(view().name("admin/dashboard"));
+    }
+
+    @Test
+    @SqlBudget(statements = 3, rows = 20)
+    void eventList() throws Exception {
+        mvc.perform(get("/events").session(student))
+                .andExpect(status().isOk())
+                .andExpect(view().name("events/list"));
+    }
+
+    @Test
+    @SqlBudget(statements = 4)
+    void eventDetails() throws Exception {
+        mvc.perform(get("/events/1").session(student))
+                .andExpect(status().isOk())
+                .andExpect(view().name("events/details"));
+    }
+
+    @Test
+    @SqlBudget(statements = 4)
+    void eventParticipants() throws Exception {
+        mvc.perform(get("/events/1/registrations").session(organizer))
+                .andExpect(status().isOk())
+                .andExpect(view().name("events/registrations"));
+    }
+
+    @Test
+    void unchangedEventPageIsNotRenderedAgain() throws Exception {
+        String etag = mvc.perform(get("/events/2").session(student))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/events/2").session(student).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // seat counts change through SQL that does not touch updated_at
+        jdbc.update("UPDATE events SET seats_taken = seats_taken + 1 WHERE id = 2");
+        entityManagerFactory.getCache().evict(Event.class, 2L);
+        mvc.perform(get("/events/2").session(student).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(view().name("events/details"));
+
+        // the same page is a different representation for another viewer
+        mvc.perform(get("/events/2").session(admin).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void eventListRevalidates() throws Exception {
+        String etag = mvc.perform(get("/events").session(student))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/events").session(student).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/events").param("filter", "upcoming").session(student)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private MockHttpSession login(String username) throws Exception {
+        return (MockHttpSession) mvc.perform(post("/login")
+                        .param("username", username)
+                        .param("password", MySqlFixture.PASSWORD))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getRequest().getSession();
+    }
+
+    private void seed() {
+        MySqlFixture.seedUsers(jdbc, USERS, 1);
+
+        // spread events over many organizers so a lazy createdBy shows up as extra statements
+        List<Object[]> events = new ArrayList<>();
+        for (int i = 1; i <= EVENTS; i++) {
+            Timestamp date = Timestamp.valueOf(BASE.plusDays(i));
+            events.add(new Object[]{i, "Event " + i, "Description of event " + i, date, "Hall " + (i % 10),
+                    (i % 40) + 1, REGISTRANTS_PER_EVENT * 2, REGISTRANTS_PER_EVENT,
+                    Timestamp.valueOf(BASE.minusDays(EVENTS - i)), "APPROVED"});
+        }
+        jdbc.batchUpdate("INSERT INTO events (id, title, description, event_date, venue, created_by, "
+                + "max_participants, seats_taken, created_at, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", events);
+
+        List<Object[]> registrations = new ArrayList<>();
+        for (int event = 1; event <= EVENTS; event++) {
+            for (int n = 0; n < REGISTRANTS_PER_EVENT; n++) {
+                int user = 41 + (event + n) % (USERS - 40);
+                registrations.add(new Object[]{event, user, Timestamp.valueOf(BASE.minusHours(n)),
+                        n % 4 == 0 ? "PENDING" : "APPROVED"});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO registrations (event_id, user_id, registration_date, status) "
+                + "VALUES (?, ?, ?, ?)", registrations);
+    }
+}
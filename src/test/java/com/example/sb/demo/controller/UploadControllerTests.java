@@ -0,0 +1,99 @@
+package com.example.sb.demo.controller;
+
+import com.example.sb.demo.service.EventImageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UploadControllerTests {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final byte[] IMAGE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0, 1, 2, 3, 4, 5, 6};
+
+    private final String uploadDir = "target/upload-tests/" + UUID.randomUUID();
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path dir = Files.createDirectories(Path.of(uploadDir));
+        Files.write(dir.resolve(HASH + "-card.jpg"), IMAGE);
+        Files.write(dir.resolve("0b1d_Why face Emoji.jpg"), IMAGE);
+        Files.write(dir.resolve(HASH + ".html"), "<script>".getBytes());
+        Files.write(dir.resolve(HASH + ".svg"), "<svg xmlns=\"http://www.w3.org/2000/svg\"><script/></svg>".getBytes());
+
+        EventImageService images = new EventImageService(null, null);
+        ReflectionTestUtils.setField(images, "uploadDir", uploadDir);
+        mvc = MockMvcBuilders.standaloneSetup(new UploadController(images))
+                .addPlaceholderValue("app.event.image.upload.dir", uploadDir)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(Path.of(uploadDir));
+    }
+
+    @Test
+    void hashedNamesAreImmutable() throws Exception {
+        mvc.perform(get("/" + uploadDir + "/" + HASH + "-card.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "-card\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(content().bytes(IMAGE));
+
+        mvc.perform(get("/" + uploadDir + "/" + HASH + "-card.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "-card\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void olderUploadsRevalidateAgainstAContentHash() throws Exception {
+        String etag = mvc.perform(get("/" + uploadDir + "/0b1d_Why face Emoji.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=86400"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/" + uploadDir + "/0b1d_Why face Emoji.jpg").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        String url = "/" + uploadDir + "/" + HASH + "-card.jpg";
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes(new byte[]{(byte) 0xFF, 0, 1, 2}));
+
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(IMAGE));
+
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=50-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void refusesNonImagesScriptableImagesAndMissingFiles() throws Exception {
+        mvc.perform(get("/" + uploadDir + "/" + HASH + ".html")).andExpect(status().isNotFound());
+        mvc.perform(get("/" + uploadDir + "/" + HASH + ".svg")).andExpect(status().isNotFound());
+        mvc.perform(get("/" + uploadDir + "/" + "cd".repeat(32) + ".jpg")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.sb.demo.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds users, events and registrations through JDBC batches at a configurable
+ * scale, e.g. {@code -Dload.students=50000 -Dload.events=5000
+ * -Dload.registrations=2000000} for fest week. Ids start at 1, so the tables
+ * must be empty. Users 1 to {@value #ADMINS} are admins and every password is
+ * {@value #PASSWORD}; each event's seats_taken matches its seeded registrations.
+ */
+public class DatasetGenerator {
+    public static final String PASSWORD = "secret";
+    public static final int ADMINS = 5;
+
+    private static final int BATCH = 10_000;
+    private static final int ORGANIZERS = 200;
+    private static final String[] DEPARTMENTS = {"CSE", "ECE", "EEE", "MECH", "CIVIL", "IT", "MBA", "BIO"};
+    private static final String[] VENUES = {"Main Auditorium", "Seminar Hall", "Open Air Theatre", "Sports Ground", "Lab Block"};
+
+    private final JdbcTemplate jdbc;
+    private final Scale scale;
+
+    public record Scale(int students, int events, int registrations) {
+
+        public static Scale fromSystemProperties() {
+            return new Scale(Integer.getInteger("load.students", 2_000),
+                    Integer.getInteger("load.events", 200),
+                    Integer.getInteger("load.registrations", 20_000));
+        }
+
+        public int users() {
+            return ADMINS + students;
+        }
+
+        /** Registrations for the zero-based event index; the remainder goes to the first events. */
+        int registrationsFor(int event) {
+            return registrations / events + (event < registrations % events ? 1 : 0);
+        }
+    }
+
+    public DatasetGenerator(JdbcTemplate jdbc, Scale scale) {
+        if (scale.registrationsFor(0) > scale.students()) {
+            throw new IllegalArgumentException("Not enough students for " + scale.registrationsFor(0)
+                    + " registrations per event");
+        }
+        this.jdbc = jdbc;
+        this.scale = scale;
+    }
+
+    public void seed() {
+        seedUsers();
+        seedEvents();
+        seedRegistrations();
+        jdbc.execute("ANALYZE TABLE users, events, registrations");
+    }
+
+    private void seedUsers() {
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int id = 1; id <= scale.users(); id++) {
+            boolean admin = id <= ADMINS;
+            rows.add(new Object[]{id, username(id), PASSWORD, username(id) + "@college.edu",
+                    admin ? "ADMIN" : "STUDENT", (admin ? "Admin " : "Student ") + id,
+                    admin ? null : "S" + (100_000 + id), DEPARTMENTS[id % DEPARTMENTS.length],
+                    admin ? null : String.valueOf(1 + id % 4)});
+            if (rows.size() == BATCH) {
+                insertUsers(rows);
+                rows.clear();
+            }
+        }
+        insertUsers(rows);
+    }
+
+    private void insertUsers(List<Object[]> rows) {
+        jdbc.batchUpdate("INSERT INTO users (id, username, password, email, role, full_name, student_id, "
+                + "department, year, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    // a fifth of the events are unlimited, the rest leave headroom for new registrations
+    private void seedEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int e = 0; e < scale.events(); e++) {
+            int registrations = scale.registrationsFor(e);
+            LocalDateTime date = now.minusDays(30).plusHours(e * 150L * 24 / scale.events());
+            rows.add(new Object[]{e + 1, "Fest Event " + (e + 1), "Synthetic event number " + (e + 1),
+                    Timestamp.valueOf(date), VENUES[e % VENUES.length], 1 + e % Math.min(ORGANIZERS, scale.users()),
+                    e % 5 == 0 ? null : registrations + 500, seatsTaken(registrations),
+                    Timestamp.valueOf(date.minusDays(45)), "APPROVED"});
+            if (rows.size() == BATCH) {
+                insertEvents(rows);
+                rows.clear();
+            }
+        }
+        insertEvents(rows);
+    }
+
+    private void insertEvents(List<Object[]> rows) {
+        jdbc.batchUpdate("INSERT INTO events (id, title, description, event_date, venue, created_by, "
+                + "max_participants, seats_taken, created_at, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // per event, registrant j is student (offset + j) mod students, so no user registers twice
+    private void seedRegistrations() {
+        LocalDateTime start = LocalDateTime.now().minusDays(60);
+        long spacingSeconds = Math.max(1, 60L * 24 * 3600 / Math.max(1, scale.registrations()));
+        long written = 0;
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int e = 0; e < scale.events(); e++) {
+            long offset = e * 7_919L;
+            for (int j = 0; j < scale.registrationsFor(e); j++) {
+                long user = ADMINS + 1 + (offset + j) % scale.students();
+                LocalDateTime date = start.plusSeconds(written++ * spacingSeconds);
+                rows.add(new Object[]{e + 1, user, Timestamp.valueOf(date), status(j)});
+                if (rows.size() == BATCH) {
+                    insertRegistrations(rows);
+                    rows.clear();
+                }
+            }
+        }
+        insertRegistrations(rows);
+    }
+
+    private void insertRegistrations(List<Object[]> rows) {
+        jdbc.batchUpdate("INSERT INTO registrations (event_id, user_id, registration_date, status) "
+                + "VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private static String status(int registrant) {
+        return switch (registrant % 10) {
+            case 0 -> "REJECTED";
+            case 1, 2 -> "PENDING";
+            default -> "APPROVED";
+        };
+    }
+
+    // every status but REJECTED holds a seat
+    private static int seatsTaken(int registrations) {
+        return registrations - (registrations + 9) / 10;
+    }
+
+    public static String username(long id) {
+        return id <= ADMINS ? "admin" + id : "student" + id;
+    }
+}
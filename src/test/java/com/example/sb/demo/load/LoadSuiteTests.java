@@ -0,0 +1,252 @@
+package com.example.sb.demo.load;
+
+import com.example.sb.demo.service.EventSearchIndex;
+import com.example.sb.demo.service.StatisticsService;
+import com.example.sb.demo.support.MySqlFixture;
+import com.example.sb.demo.support.PerfTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end HTTP load against the running application on a seeded database.
+ * Student virtual users log in and browse /events, open event pages and
+ * register; admin virtual users poll the dashboard, registrations and users
+ * pages. Logs throughput and p50/p99/p999 latency per route after a warm-up.
+ * <p>
+ * Runs offline against a throwaway MySQL container, or against a local MySQL
+ * with -Dload.jdbc-url (plus load.jdbc-user and load.jdbc-password), which is
+ * seeded only while empty and kept afterwards. Scale and duration come from
+ * load.students, load.events, load.registrations, load.virtual-users,
+ * load.admins, load.warmup-seconds and load.duration-seconds. Tagged perf;
+ * skipped when neither database is available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@EnabledIf("databaseAvailable")
+@PerfTest
+class LoadSuiteTests {
+    private static final Logger log = LoggerFactory.getLogger(LoadSuiteTests.class);
+
+    private static final String LOCAL_URL = System.getProperty("load.jdbc-url");
+    private static final int VIRTUAL_USERS = Integer.getInteger("load.virtual-users", 32);
+    private static final int ADMINS = Integer.getInteger("load.admins", 2);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 20);
+
+    private static final MySQLContainer<?> mysql = MySqlFixture.container();
+
+    private final DatasetGenerator.Scale scale = DatasetGenerator.Scale.fromSystemProperties();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    static boolean databaseAvailable() {
+        return LOCAL_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (LOCAL_URL != null) {
+            registry.add("spring.datasource.url", () -> LOCAL_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("load.jdbc-user", "root"));
+            registry.add("spring.datasource.password", () -> System.getProperty("load.jdbc-password", ""));
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+        } else {
+            mysql.start();
+            registry.add("spring.datasource.url", mysql::getJdbcUrl);
+            registry.add("spring.datasource.username", mysql::getUsername);
+            registry.add("spring.datasource.password", mysql::getPassword);
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        }
+    }
+
+    private static final class RouteStats {
+        final ConcurrentLinkedQueue<Long> latenciesMicros = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errors = new AtomicInteger();
+
+        long percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        Long users = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (users == null || users == 0) {
+            long started = System.nanoTime();
+            new DatasetGenerator(jdbc, scale).seed();
+            log.info(String.format("seeded %s in %.1fs", scale, (System.nanoTime() - started) / 1e9));
+            statisticsService.reconcile();
+            eventSearchIndex.rebuild();
+        }
+    }
+
+    @Test
+    void festWeekTraffic() throws Exception {
+        run(WARMUP_SECONDS, new ConcurrentHashMap<>());
+        Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+        double seconds = run(DURATION_SECONDS, routes);
+
+        StringBuilder table = new StringBuilder(String.format("%d virtual users (%d admins) for %ds against %s%n",
+                VIRTUAL_USERS, ADMINS, DURATION_SECONDS, scale));
+        table.append(String.format("%-28s %9s %7s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        routes.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            RouteStats stats = entry.getValue();
+            long[] sorted = stats.latenciesMicros.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            table.append(String.format("%-28s %9d %7d %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(), sorted.length,
+                    stats.errors.get(), sorted.length / seconds, stats.percentile(sorted, 0.50) / 1e3,
+                    stats.percentile(sorted, 0.99) / 1e3, stats.percentile(sorted, 0.999) / 1e3));
+        });
+        log.info(table.toString());
+
+        assertThat(routes).containsKeys("GET /events", "GET /events/{id}", "POST /events/{id}/register");
+        if (ADMINS > 0) {
+            assertThat(routes).containsKeys("GET /admin/dashboard", "GET /admin/registrations", "GET /admin/users");
+        }
+        assertThat(routes.values()).allSatisfy(stats -> assertThat(stats.errors.get()).isZero());
+    }
+
+    /** Runs every virtual user until the deadline; returns the elapsed seconds. */
+    private double run(int durationSeconds, Map<String, RouteStats> routes) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(VIRTUAL_USERS);
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < VIRTUAL_USERS; i++) {
+            int user = i;
+            pool.execute(() -> {
+                VirtualUser client = new VirtualUser(routes);
+                Random random = new Random(user);
+                if (user < ADMINS) {
+                    client.login(1 + user % DatasetGenerator.ADMINS);
+                    while (System.nanoTime() < deadline) {
+                        client.admin(random);
+                    }
+                } else {
+                    client.login(DatasetGenerator.ADMINS + 1 + random.nextInt(scale.students()));
+                    while (System.nanoTime() < deadline) {
+                        client.student(random);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(durationSeconds + 120L, TimeUnit.SECONDS)).isTrue();
+        return (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    private final class VirtualUser {
+        private final Map<String, RouteStats> routes;
+        private final HttpClient http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        VirtualUser(Map<String, RouteStats> routes) {
+            this.routes = routes;
+        }
+
+        void login(long userId) {
+            HttpResponse<Void> response = send("POST /login", post("/login",
+                    "username=" + DatasetGenerator.username(userId) + "&password=" + DatasetGenerator.PASSWORD));
+            // a failed login redirects back to /login
+            if (response != null && response.headers().firstValue("Location").orElse("").endsWith("/login")) {
+                routes.get("POST /login").errors.incrementAndGet();
+            }
+        }
+
+        void student(Random random) {
+            long eventId = 1 + random.nextInt(scale.events());
+            send("GET /events", get("/events"));
+            send("GET /events/{id}", get("/events/" + eventId));
+            if (random.nextInt(4) == 0) {
+                send("POST /events/{id}/register", post("/events/" + eventId + "/register", ""));
+            }
+        }
+
+        void admin(Random random) {
+            send("GET /admin/dashboard", get("/admin/dashboard"));
+            send("GET /admin/registrations", get("/admin/registrations?eventId=" + (1 + random.nextInt(scale.events()))));
+            if (random.nextInt(5) == 0) {
+                send("GET /admin/users", get("/admin/users"));
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(uri(path)).GET().build();
+        }
+
+        private HttpRequest post(String path, String form) {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build();
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+
+        private HttpResponse<Void> send(String route, HttpRequest request) {
+            RouteStats stats = routes.computeIfAbsent(route, r -> new RouteStats());
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                stats.latenciesMicros.add((System.nanoTime() - start) / 1_000);
+                if (response.statusCode() >= 500) {
+                    stats.errors.incrementAndGet();
+                }
+                return response;
+            } catch (IOException e) {
+                stats.errors.incrementAndGet();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+}
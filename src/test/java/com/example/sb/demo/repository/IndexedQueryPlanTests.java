@@ -0,0 +1,203 @@
+package com.example.sb.demo.repository;
+
+import com.example.sb.demo.dto.RegistrationSummary;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.Registration;
+import com.example.sb.demo.support.MySqlFixture;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a realistically sized dataset into MySQL and runs EXPLAIN on the exact SQL
+ * Hibernate issues for the range and status queries, failing if any table in the
+ * plan is read with a full scan (access type ALL). Skipped when Docker is not
+ * available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.sb.demo.repository.IndexedQueryPlanTests$SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IndexedQueryPlanTests {
+
+    private static final int USERS = 2_000;
+    private static final int EVENTS = 500;
+    private static final int REGISTRATIONS = 50_000;
+    private static final int BATCH = 5_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM registrations", Long.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        MySqlFixture.seedUsers(jdbc, USERS, 5);
+
+        List<Object[]> events = new ArrayList<>();
+        for (int i = 1; i <= EVENTS; i++) {
+            Timestamp date = Timestamp.valueOf(BASE.plusHours(i * 35L));
+            events.add(new Object[]{i, "Event " + i, "Description of event " + i, date,
+                    "Hall " + (i % 20), (i % 5) + 1, date, "APPROVED"});
+        }
+        jdbc.batchUpdate("INSERT INTO events (id, title, description, event_date, venue, created_by, created_at, status, "
+                + "seats_taken) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)", events);
+
+        List<Object[]> registrations = new ArrayList<>(BATCH);
+        for (int i = 1; i <= REGISTRATIONS; i++) {
+            String status = i % 50 == 0 ? "PENDING" : (i % 10 == 1 ? "REJECTED" : "APPROVED");
+            registrations.add(new Object[]{i, (i % EVENTS) + 1, (i % USERS) + 1,
+                    Timestamp.valueOf(BASE.plusMinutes(i * 21L)), status});
+            if (registrations.size() == BATCH) {
+                insertRegistrations(registrations);
+                registrations.clear();
+            }
+        }
+        insertRegistrations(registrations);
+
+        jdbc.execute("ANALYZE TABLE users, events, registrations");
+    }
+
+    @Test
+    void eventDateRangeUsesIndex() {
+        LocalDateTime start = BASE.plusDays(100);
+        LocalDateTime end = start.plusMonths(1);
+
+        List<Event> events = assertNoFullScan(() -> eventRepository.findByEventDateBetween(start, end), start, end);
+
+        assertThat(events).isNotEmpty()
+                .allMatch(e -> !e.getEventDate().isBefore(start) && !e.getEventDate().isAfter(end));
+    }
+
+    @Test
+    void registrationDateRangeUsesIndex() {
+        LocalDateTime start = BASE.plusDays(200);
+        LocalDateTime end = start.plusWeeks(1);
+
+        List<Registration> registrations = assertNoFullScan(
+                () -> registrationRepository.findByRegistrationDateBetween(start, end), start, end);
+
+        assertThat(registrations).isNotEmpty()
+                .allMatch(r -> !r.getRegistrationDate().isBefore(start) && !r.getRegistrationDate().isAfter(end));
+    }
+
+    @Test
+    void pendingRegistrationsUseStatusIndex() {
+        List<Registration> pending = assertNoFullScan(() -> registrationRepository.findByStatus("PENDING"), "PENDING");
+
+        assertThat(pending).hasSize(REGISTRATIONS / 50).allMatch(r -> "PENDING".equals(r.getStatus()));
+    }
+
+    @Test
+    void pendingRegistrationsForEventUseEventStatusIndex() {
+        Event event = eventRepository.findById(50L).orElseThrow();
+
+        List<Registration> pending = assertNoFullScan(
+                () -> registrationRepository.findByEventAndStatus(event, "PENDING"), 50L, "PENDING");
+
+        assertThat(pending).isNotEmpty().allMatch(r -> "PENDING".equals(r.getStatus()));
+    }
+
+    @Test
+    void adminRegistrationFilterUsesIndex() {
+        List<RegistrationSummary> filtered = assertNoFullScan(
+                () -> registrationRepository.search(50L, "PENDING", null),
+                50L, 50L, "PENDING", "PENDING", null, null);
+
+        assertThat(filtered).isNotEmpty()
+                .allMatch(r -> r.getEventId() == 50L && "PENDING".equals(r.getStatus()));
+    }
+
+    @Test
+    void adminRegistrationDepartmentFilterUsesIndexedJoin() {
+        List<RegistrationSummary> filtered = assertNoFullScan(
+                () -> registrationRepository.search(null, null, "DEPT3"),
+                null, null, null, null, "DEPT3", "DEPT3");
+
+        assertThat(filtered).isNotEmpty().allMatch(r -> "DEPT3".equals(r.getUserDepartment()));
+    }
+
+    @Test
+    void distinctDepartmentsUseDepartmentIndex() {
+        List<String> departments = assertNoFullScan(() -> userRepository.findDistinctDepartments());
+
+        assertThat(departments).hasSize(12);
+    }
+
+    private <T> T assertNoFullScan(Supplier<T> repositoryCall, Object... params) {
+        SqlCapture.STATEMENTS.clear();
+        T result = repositoryCall.get();
+
+        // the first statement is the query itself
+        assertThat(SqlCapture.STATEMENTS).isNotEmpty();
+        String sql = SqlCapture.STATEMENTS.get(0);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as("parameters of %s", sql).isEqualTo(params.length);
+
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, params);
+        assertThat(plan).isNotEmpty();
+        for (Map<String, Object> row : plan) {
+            assertThat(row.get("type")).as("access type for table %s in %s", row.get("table"), sql)
+                    .isNotEqualTo("ALL");
+        }
+        return result;
+    }
+
+    private void insertRegistrations(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO registrations (id, event_id, user_id, registration_date, status) "
+                    + "VALUES (?, ?, ?, ?, ?)", rows);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.UserRepository;
+import com.example.sb.demo.support.MySqlFixture;
+import com.example.sb.demo.support.PerfTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bulk approve/reject against MySQL: a whole fest's worth of registrations must
+ * be moderated within -Dbulk.moderation.maxMillis (default 1000) and seat counts
+ * must follow the status changes, also when a student cancels while an admin
+ * rejects. The timed tests are tagged perf. Skipped when Docker is not
+ * available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RegistrationService.class, StatisticsService.class, SeatAllocator.class,
+        RegistrationMetrics.class, SimpleMeterRegistry.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkModerationTests {
+    private static final Logger log = LoggerFactory.getLogger(BulkModerationTests.class);
+
+    private static final int STUDENTS = 5_000;
+    private static final long MAX_MILLIS = Long.getLong("bulk.moderation.maxMillis", 1000);
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seedStudents() {
+        MySqlFixture.seedUsers(jdbc, STUDENTS + 1, 1);
+    }
+
+    @Test
+    @PerfTest
+    void approvesAFestWithinBudget() {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, null);
+        register(event, STUDENTS, "PENDING");
+
+        long start = System.nanoTime();
+        int updated = registrationService.updateEventRegistrationStatuses(event.getId(), "PENDING", "APPROVED");
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("bulk moderation: approved {} registrations in {} ms", updated, millis);
+        assertThat(updated).isEqualTo(STUDENTS);
+        assertThat(countByStatus(event, "APPROVED")).isEqualTo(STUDENTS);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(STUDENTS);
+        assertThat(millis).isLessThan(MAX_MILLIS);
+    }
+
+    @Test
+    @PerfTest
+    void rejectingSelectedRegistrationsReturnsTheirSeats() {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, STUDENTS);
+        List<Long> ids = register(event, STUDENTS, "PENDING");
+
+        long start = System.nanoTime();
+        int updated = registrationService.updateRegistrationStatuses(ids.subList(0, 4_000), "REJECTED");
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("bulk moderation: rejected {} selected registrations in {} ms", updated, millis);
+        assertThat(updated).isEqualTo(4_000);
+        assertThat(countByStatus(event, "REJECTED")).isEqualTo(4_000);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(STUDENTS - 4_000);
+        assertThat(millis).isLessThan(MAX_MILLIS);
+    }
+
+    @Test
+    void approvalThatWouldOversellChangesNothing() {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, 10);
+        register(event, 10, "PENDING");
+        List<Long> rejected = register(event, 5, "REJECTED");
+
+        assertThatThrownBy(() -> registrationService.updateRegistrationStatuses(rejected, "APPROVED"))
+                .hasMessageContaining("Not enough seats");
+
+        assertThat(countByStatus(event, "REJECTED")).isEqualTo(5);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(10);
+    }
+
+    @Test
+    void eventWideApprovalLeavesCancelledRegistrationsAlone() {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, null);
+        register(event, 20, "PENDING");
+        register(event, 5, "CANCELLED");
+
+        int updated = registrationService.updateEventRegistrationStatuses(event.getId(), "PENDING", "APPROVED");
+
+        assertThat(updated).isEqualTo(20);
+        assertThat(countByStatus(event, "CANCELLED")).isEqualTo(5);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(20);
+        assertThatThrownBy(() -> registrationService.updateEventRegistrationStatuses(event.getId(), "CANCELLED", "APPROVED"))
+                .hasMessageContaining("Invalid registration status");
+        assertThatThrownBy(() -> registrationService.updateEventRegistrationStatuses(event.getId(), null, "APPROVED"))
+                .hasMessageContaining("Invalid registration status");
+    }
+
+    @Test
+    void cancelRacingARejectionReturnsTheSeatOnce() throws Exception {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, null);
+        List<Long> ids = register(event, 200, "APPROVED");
+        List<Long> userIds = jdbc.queryForList(
+                "SELECT user_id FROM registrations WHERE event_id = ? ORDER BY id", Long.class, event.getId());
+        SessionUser admin = new SessionUser(1L, "ADMIN", "Admin", 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> attempts = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            SessionUser student = new SessionUser(userIds.get(i), "STUDENT", "Student", 0);
+            attempts.add(pool.submit(() -> registrationService.cancelRegistration(id, student)));
+            attempts.add(pool.submit(() -> {
+                registrationService.updateRegistrationStatus(id, "REJECTED", admin);
+            }));
+        }
+        for (Future<?> attempt : attempts) {
+            try {
+                attempt.get(1, TimeUnit.MINUTES);
+            } catch (ExecutionException e) {
+                // the loser of a race is told to reload
+            }
+        }
+        pool.shutdown();
+
+        assertThat(countByStatus(event, "APPROVED")).isZero();
+        assertThat(countByStatus(event, "CANCELLED") + countByStatus(event, "REJECTED")).isEqualTo(200);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isZero();
+    }
+
+    private List<Long> register(Event event, int count, String status) {
+        int firstUser = jdbc.queryForObject(
+                "SELECT COALESCE(MAX(user_id), 1) FROM registrations WHERE event_id = ?", Integer.class, event.getId()) + 1;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{event.getId(), (long) firstUser + i, now, status});
+        }
+        jdbc.batchUpdate("INSERT INTO registrations (event_id, user_id, registration_date, status) VALUES (?, ?, ?, ?)", rows);
+        if (SeatAllocator.holdsSeat(status)) {
+            jdbc.update("UPDATE events SET seats_taken = seats_taken + ? WHERE id = ?", count, event.getId());
+        }
+        return jdbc.queryForList("SELECT id FROM registrations WHERE event_id = ? AND user_id >= ? ORDER BY id",
+                Long.class, event.getId(), firstUser);
+    }
+
+    private int countByStatus(Event event, String status) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM registrations WHERE event_id = ? AND status = ?",
+                Integer.class, event.getId(), status);
+    }
+}
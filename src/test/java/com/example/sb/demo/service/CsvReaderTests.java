@@ -0,0 +1,35 @@
+package com.example.sb.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvReaderTests {
+
+    @Test
+    void readsQuotedFieldsAndTracksRecordLines() throws Exception {
+        String csv = "username,fullName\r\n"
+                + "ada,\"Lovelace, Ada\"\r\n"
+                + "grace,\"Grace \"\"Amazing\"\" Hopper\"\n"
+                + "alan,\"Alan\nTuring\"\n"
+                + "\n"
+                + "edsger,\"\"";
+
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            assertThat(reader.next()).containsExactly("username", "fullName");
+            assertThat(reader.next()).containsExactly("ada", "Lovelace, Ada");
+            assertThat(reader.getLine()).isEqualTo(2);
+            assertThat(reader.next()).containsExactly("grace", "Grace \"Amazing\" Hopper");
+            assertThat(reader.next()).containsExactly("alan", "Alan\nTuring");
+            assertThat(reader.getLine()).isEqualTo(4);
+            assertThat(reader.next()).containsExactly("");
+            assertThat(reader.getLine()).isEqualTo(6);
+            assertThat(reader.next()).containsExactly("edsger", "");
+            assertThat(reader.getLine()).isEqualTo(7);
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
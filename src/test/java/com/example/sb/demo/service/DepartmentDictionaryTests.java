@@ -0,0 +1,86 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.RegistrationSummary;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.RegistrationRepository;
+import com.example.sb.demo.repository.UserRepository;
+import com.example.sb.demo.support.MySqlFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DepartmentDictionary against MySQL: department spellings stored before names
+ * were normalized are rewritten on load, so the admin filter, which compares
+ * the exact name from the dictionary, finds their registrations. Skipped when
+ * Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DepartmentDictionary.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DepartmentDictionaryTests {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void legacySpellingsAreRewrittenAndFound() {
+        MySqlFixture.seedUsers(jdbc, 5, 1);
+        String[] departments = {null, "Computer Science", "computer  science", " Computer Science ", "Mechanical"};
+        for (int i = 0; i < departments.length; i++) {
+            jdbc.update("UPDATE users SET department = ? WHERE id = ?", departments[i], i + 1);
+        }
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, null);
+        for (long userId = 2; userId <= 5; userId++) {
+            jdbc.update("INSERT INTO registrations (event_id, user_id, registration_date, status) "
+                    + "VALUES (?, ?, ?, 'PENDING')", event.getId(), userId, Timestamp.valueOf(LocalDateTime.now()));
+        }
+
+        departmentDictionary.refresh();
+
+        assertThat(departmentDictionary.getDepartments()).containsExactly("Computer Science", "Mechanical");
+        // BINARY: the column collation ignores case
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE BINARY department = 'Computer Science'",
+                Integer.class)).isEqualTo(3);
+        assertThat(registrationRepository.search(null, null, "Computer Science"))
+                .extracting(RegistrationSummary::getUserDepartment)
+                .containsExactly("Computer Science", "Computer Science", "Computer Science");
+        assertThat(departmentDictionary.canonical("COMPUTER science")).isEqualTo("Computer Science");
+    }
+}
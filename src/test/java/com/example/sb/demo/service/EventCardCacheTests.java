@@ -0,0 +1,74 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventCardCacheTests {
+
+    private EventCardCache cache;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+
+        cache = new EventCardCache(engine);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 60L);
+        cache.start();
+
+        User organizer = new User();
+        organizer.setFullName("Ada Organizer");
+        event = new Event();
+        event.setId(7L);
+        event.setTitle("Robotics Night");
+        event.setDescription("Build & race");
+        event.setVenue("Hall 3");
+        event.setMaxParticipants(40);
+        event.setEventDate(LocalDateTime.of(2030, 3, 14, 18, 0));
+        event.setCreatedAt(LocalDateTime.of(2030, 1, 1, 9, 0));
+        event.setCreatedBy(organizer);
+    }
+
+    @Test
+    void rendersUserIndependentCardBody() {
+        String html = cache.render(EventCardCache.LIST_CARD, List.of(event), Locale.ENGLISH).get(7L);
+
+        assertThat(html).contains("Robotics Night", "Build &amp; race", "Hall 3", "40 seats", "Ada Organizer", "Mar 14");
+        assertThat(html).doesNotContain("th:", "card-footer");
+    }
+
+    @Test
+    void reusesCardsUntilTheEventChanges() {
+        cache.render(EventCardCache.HOME_CARD, List.of(event), Locale.ENGLISH);
+
+        event.setTitle("Renamed without a new version");
+        assertThat(cache.render(EventCardCache.HOME_CARD, List.of(event), Locale.ENGLISH).get(7L))
+                .contains("Robotics Night");
+
+        event.setUpdatedAt(LocalDateTime.of(2030, 1, 2, 9, 0));
+        assertThat(cache.render(EventCardCache.HOME_CARD, List.of(event), Locale.ENGLISH).get(7L))
+                .contains("Renamed without a new version");
+
+        event.setTitle("Evicted");
+        cache.evict(7L);
+        assertThat(cache.render(EventCardCache.HOME_CARD, List.of(event), Locale.ENGLISH).get(7L))
+                .contains("Evicted");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.sb.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventImageServiceTests {
+
+    @Test
+    void scalesDownKeepingAspectRatio() {
+        BufferedImage original = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage card = EventImageService.scale(original, 640);
+
+        assertThat(card.getWidth()).isEqualTo(640);
+        assertThat(card.getHeight()).isEqualTo(480);
+        assertThat(card.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    void neverScalesUp() {
+        BufferedImage original = new BufferedImage(500, 200, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage detail = EventImageService.scale(original, 1280);
+
+        assertThat(detail.getWidth()).isEqualTo(500);
+        assertThat(detail.getHeight()).isEqualTo(200);
+    }
+
+    @Test
+    void variantsAreNamedAfterTheOriginal() {
+        Path original = Path.of("uploads/events/abc_poster.final.png");
+
+        assertThat(EventImageService.variantName(original, EventImageService.Variant.THUMBNAIL))
+                .isEqualTo("abc_poster.final-thumb.jpg");
+        assertThat(EventImageService.variantName(original, EventImageService.Variant.DETAIL))
+                .isEqualTo("abc_poster.final-detail.jpg");
+    }
+
+    @Test
+    void identicalUploadsShareOneFile(@TempDir Path uploads) throws Exception {
+        EventImageService service = new EventImageService(null, null);
+        ReflectionTestUtils.setField(service, "uploadDir", uploads.toString());
+        byte[] poster = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 1, 2, 3};
+
+        String first = service.storeOriginal(new MockMultipartFile("imageFile", "Why face Emoji.jpg", "image/jpeg", poster));
+        String second = service.storeOriginal(new MockMultipartFile("imageFile", "poster-2025.jpg", "image/jpeg", poster));
+        String other = service.storeOriginal(new MockMultipartFile("imageFile", "poster.jpg", "image/jpeg", new byte[]{9}));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        assertThat(first).matches(".*/[0-9a-f]{64}\\.jpg");
+        try (Stream<Path> files = Files.list(uploads)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+
+    @Test
+    void rejectsUndecodableContentTypes(@TempDir Path uploads) {
+        EventImageService service = new EventImageService(null, null);
+        ReflectionTestUtils.setField(service, "uploadDir", uploads.toString());
+
+        assertThatThrownBy(() -> service.storeOriginal(
+                new MockMultipartFile("imageFile", "poster.svg", "image/svg+xml", new byte[]{1})))
+                .hasMessageContaining("JPEG, PNG, GIF or BMP");
+    }
+}
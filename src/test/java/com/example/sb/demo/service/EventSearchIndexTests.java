@@ -0,0 +1,103 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.EventSearchDocument;
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSearchIndexTests {
+
+    private EventSearchIndex index = new EventSearchIndex(null);
+
+    @BeforeEach
+    void setUp() {
+        index.index(event(1L, "Jazz Night", "An evening of live music", "Main Hall"));
+        index.index(event(2L, "Spring Concert", "Orchestra and jazz ensemble", "Auditorium"));
+        index.index(event(3L, "Chess Club", "Weekly games", "Jazz Cafe"));
+    }
+
+    @Test
+    void everyTokenMustMatchAsATermOrPrefix() {
+        assertThat(index.search("jazz", 0, 10).eventIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.search("jazz music", 0, 10).eventIds()).containsExactly(1L);
+        assertThat(index.search("orch", 0, 10).eventIds()).containsExactly(2L);
+        assertThat(index.search("jazz opera", 0, 10).total()).isZero();
+        assertThat(index.search("  ", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void shortTokensMatchOnlyWholeTerms() {
+        index.index(event(4L, "AI Meetup", "Talks on ai and ml", "Lab 5"));
+
+        assertThat(index.search("ai", 0, 10).eventIds()).containsExactly(4L);
+        assertThat(index.search("j", 0, 10).total()).isZero();
+        assertThat(index.search("ja", 0, 10).total()).isZero();
+        assertThat(index.search("jaz", 0, 10).eventIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.search("5 lab", 0, 10).eventIds()).containsExactly(4L);
+    }
+
+    @Test
+    void ranksTitleAboveVenueAboveDescription() {
+        assertThat(index.search("jazz", 0, 10).eventIds()).containsExactly(1L, 3L, 2L);
+        // a whole-term match outranks a prefix match in the same field
+        index.index(event(4L, "Jazzercise", "Fitness", "Gym"));
+        assertThat(index.search("jazz", 0, 10).eventIds()).startsWith(1L);
+    }
+
+    @Test
+    void pagesThroughRankedHits() {
+        EventSearchIndex.Hits page = index.search("jazz", 1, 1);
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(page.eventIds()).containsExactly(3L);
+
+        assertThat(index.search("jazz", 2, 5).eventIds()).containsExactly(2L);
+        EventSearchIndex.Hits farPastTheEnd = index.search("jazz", Integer.MAX_VALUE - 1, 12);
+        assertThat(farPastTheEnd.total()).isEqualTo(3);
+        assertThat(farPastTheEnd.eventIds()).isEmpty();
+    }
+
+    @Test
+    void reindexingAndRemovalReplaceTheOldTerms() {
+        index.index(event(1L, "Blues Night", "An evening of live music", "Main Hall"));
+        index.remove(3L);
+
+        assertThat(index.search("jazz", 0, 10).eventIds()).containsExactly(2L);
+        assertThat(index.search("blues", 0, 10).eventIds()).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildKeepsChangesCommittedWhileItLoads() {
+        EventSearchIndex[] holder = new EventSearchIndex[1];
+        EventRepository repository = (EventRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{EventRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllSearchDocuments")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    // event 2 is created and committed after the load read its rows
+                    holder[0].index(event(2L, "Robotics Fair", "Demos", "Lab"));
+                    return List.of(new EventSearchDocument(1L, "Jazz Night", "Live music", "Main Hall"));
+                });
+        index = new EventSearchIndex(repository);
+        holder[0] = index;
+
+        index.rebuild();
+
+        assertThat(index.search("jazz", 0, 10).eventIds()).containsExactly(1L);
+        assertThat(index.search("robotics", 0, 10).eventIds()).containsExactly(2L);
+    }
+
+    private static Event event(Long id, String title, String description, String venue) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setDescription(description);
+        event.setVenue(venue);
+        return event;
+    }
+}
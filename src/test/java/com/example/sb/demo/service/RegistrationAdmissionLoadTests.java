@@ -0,0 +1,209 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.RegistrationRepository;
+import com.example.sb.demo.repository.UserRepository;
+import com.example.sb.demo.support.MySqlFixture;
+import com.example.sb.demo.support.PerfTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reproducible load comparison between the direct registration path
+ * (RegistrationService.registerForEvent, one transaction per click) and the
+ * batched admission queue, against MySQL with default durability settings.
+ * Logs throughput and latency percentiles for both paths; that comparison is
+ * tagged perf, the capacity check is not. Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.admission.flush-interval-ms=5"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RegistrationService.class, StatisticsService.class, SeatAllocator.class,
+        RegistrationMetrics.class, SimpleMeterRegistry.class, RegistrationAdmissionQueue.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationAdmissionLoadTests {
+    private static final Logger log = LoggerFactory.getLogger(RegistrationAdmissionLoadTests.class);
+
+    private static final int STUDENTS = 3_000;
+    private static final int THREADS = 64;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private RegistrationAdmissionQueue admissionQueue;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private List<User> students;
+
+    private record LoadResult(String path, int admitted, double perSecond, long[] latenciesMicros) {
+        long percentile(double p) {
+            long[] sorted = latenciesMicros.clone();
+            Arrays.sort(sorted);
+            return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+
+        void report() {
+            log.info(String.format("%-16s admitted=%5d  %8.0f req/s  p50=%6dus  p99=%7dus  p999=%7dus",
+                    path, admitted, perSecond, percentile(0.50), percentile(0.99), percentile(0.999)));
+        }
+    }
+
+    @BeforeEach
+    void seedStudents() {
+        MySqlFixture.seedUsers(jdbc, STUDENTS + 1, 1);
+        students = userRepository.findAll().stream()
+                .filter(u -> "STUDENT".equals(u.getRole()))
+                .toList();
+    }
+
+    @Test
+    @PerfTest
+    void batchedAdmissionOutperformsDirectRegistration() throws Exception {
+        Event directEvent = MySqlFixture.createEvent(eventRepository, userRepository, null);
+        Event queuedEvent = MySqlFixture.createEvent(eventRepository, userRepository, null);
+
+        LoadResult direct = runDirect(directEvent);
+        LoadResult queued = runQueued(queuedEvent);
+
+        log.info("registration storm, {} students, {} client threads", STUDENTS, THREADS);
+        direct.report();
+        queued.report();
+
+        assertThat(direct.admitted()).isEqualTo(STUDENTS);
+        assertThat(queued.admitted()).isEqualTo(STUDENTS);
+        assertThat(registrationRepository.countByEventId(queuedEvent.getId())).isEqualTo(STUDENTS);
+        assertThat(MySqlFixture.seatsTaken(jdbc, queuedEvent)).isEqualTo(STUDENTS);
+        assertThat(queued.perSecond()).isGreaterThan(direct.perSecond());
+    }
+
+    @Test
+    void batchedAdmissionRespectsCapacityAndDuplicates() throws Exception {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, 100);
+
+        List<AdmissionTicket> tickets = new ArrayList<>();
+        for (User student : students) {
+            tickets.add(admissionQueue.submit(event, student));
+        }
+        AdmissionTicket duplicate = admissionQueue.submit(event, students.get(0));
+        awaitResolved(tickets);
+        awaitResolved(List.of(duplicate));
+
+        assertThat(tickets).filteredOn(t -> t.getStatus() == AdmissionTicket.Status.ADMITTED).hasSize(100);
+        assertThat(duplicate.getStatus()).isEqualTo(AdmissionTicket.Status.REJECTED);
+        assertThat(registrationRepository.countByEventId(event.getId())).isEqualTo(100);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(100);
+        // the batch that took the last seat marked the event sold out, so nothing more is queued
+        assertThatThrownBy(() -> admissionQueue.submit(event, students.get(0))).hasMessageContaining("full");
+    }
+
+    private LoadResult runDirect(Event event) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        long elapsed = runConcurrently(student -> {
+            long start = System.nanoTime();
+            registrationService.registerForEvent(event, student);
+            latencies.add((System.nanoTime() - start) / 1_000);
+        });
+        return new LoadResult("direct", latencies.size(), STUDENTS / (elapsed / 1e9),
+                latencies.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private LoadResult runQueued(Event event) throws InterruptedException {
+        ConcurrentLinkedQueue<AdmissionTicket> tickets = new ConcurrentLinkedQueue<>();
+        long startedAt = System.nanoTime();
+        runConcurrently(student -> tickets.add(admissionQueue.submit(event, student)));
+        awaitResolved(tickets);
+        long finishedAt = tickets.stream().mapToLong(AdmissionTicket::getResolvedAtNanos).max().orElse(startedAt);
+
+        // latency is what the student waits for a decision: submit until the ticket resolves
+        long[] latencies = tickets.stream()
+                .mapToLong(t -> (t.getResolvedAtNanos() - t.getSubmittedAtNanos()) / 1_000)
+                .toArray();
+        int admitted = (int) tickets.stream().filter(t -> t.getStatus() == AdmissionTicket.Status.ADMITTED).count();
+        return new LoadResult("admission queue", admitted, STUDENTS / ((finishedAt - startedAt) / 1e9), latencies);
+    }
+
+    private long runConcurrently(Consumer<User> action) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(students.size());
+        for (User student : students) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    action.accept(student);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // counted as not admitted
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(5, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - startedAt;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private void awaitResolved(Iterable<AdmissionTicket> tickets) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        for (AdmissionTicket ticket : tickets) {
+            while (!ticket.isResolved()) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(5);
+            }
+        }
+    }
+}
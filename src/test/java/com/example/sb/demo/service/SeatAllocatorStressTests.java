@@ -0,0 +1,176 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.RegistrationRepository;
+import com.example.sb.demo.repository.UserRepository;
+import com.example.sb.demo.support.MySqlFixture;
+import com.example.sb.demo.support.PerfTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of concurrent registrations through RegistrationService,
+ * against MySQL with default durability, and checks that capacity is never
+ * exceeded and every seat is accounted for. Reservations spread over many events
+ * and a storm on a sold-out event must each run at -Dseat.stress.minPerSecond
+ * (default 1000). Filling one hot event commits once per seat while holding its
+ * row, so that rate is bounded by commit latency and only reported; thousands
+ * per second on one event come from the batched admission queue
+ * (RegistrationAdmissionLoadTests). Tagged perf; skipped when Docker is not
+ * available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RegistrationService.class, StatisticsService.class, SeatAllocator.class,
+        RegistrationMetrics.class, SimpleMeterRegistry.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@PerfTest
+class SeatAllocatorStressTests {
+    private static final Logger log = LoggerFactory.getLogger(SeatAllocatorStressTests.class);
+
+    private static final int STUDENTS = 4_000;
+    private static final int THREADS = 32;
+    private static final int EVENTS = 40;
+    private static final double MIN_PER_SECOND =
+            Double.parseDouble(System.getProperty("seat.stress.minPerSecond", "1000"));
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private List<User> students;
+
+    private record StormResult(int accepted, int rejected, double perSecond) {
+    }
+
+    @BeforeEach
+    void seedStudents() {
+        MySqlFixture.seedUsers(jdbc, STUDENTS + 1, 1);
+        students = userRepository.findAll().stream()
+                .filter(u -> "STUDENT".equals(u.getRole()))
+                .toList();
+    }
+
+    @Test
+    void neverOversellsUnderRegistrationStorm() throws Exception {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, 100);
+
+        StormResult result = storm(students, student -> event);
+
+        log.info("seat allocation: {} attempts on a 100-seat event at {}/s",
+                STUDENTS, Math.round(result.perSecond()));
+        assertThat(result.accepted()).isEqualTo(100);
+        assertThat(result.rejected()).isEqualTo(STUDENTS - 100);
+        assertThat(registrationRepository.countByEventId(event.getId())).isEqualTo(100);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(100);
+        assertThat(result.perSecond()).isGreaterThan(MIN_PER_SECOND);
+    }
+
+    @Test
+    void reservesThousandsOfSeatsPerSecondAcrossEvents() throws Exception {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(MySqlFixture.createEvent(eventRepository, userRepository, STUDENTS / EVENTS));
+        }
+
+        StormResult result = storm(students, student -> events.get((int) (student.getId() % EVENTS)));
+
+        log.info("seat allocation: {} registrations over {} events at {}/s",
+                result.accepted(), EVENTS, Math.round(result.perSecond()));
+        assertThat(result.accepted()).isEqualTo(STUDENTS);
+        for (Event event : events) {
+            assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(STUDENTS / EVENTS);
+        }
+        assertThat(result.perSecond()).isGreaterThan(MIN_PER_SECOND);
+    }
+
+    @Test
+    void fillsOneHotEventToCapacity() throws Exception {
+        Event event = MySqlFixture.createEvent(eventRepository, userRepository, STUDENTS);
+
+        StormResult result = storm(students, student -> event);
+
+        log.info("seat allocation: {} registrations on one event at {}/s",
+                result.accepted(), Math.round(result.perSecond()));
+        assertThat(result.accepted()).isEqualTo(STUDENTS);
+        assertThat(MySqlFixture.seatsTaken(jdbc, event)).isEqualTo(STUDENTS);
+    }
+
+    private StormResult storm(List<User> users, Function<User, Event> eventFor) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(users.size());
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        for (User user : users) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    registrationService.registerForEvent(eventFor.apply(user), user);
+                    accepted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        pool.shutdown();
+
+        return new StormResult(accepted.get(), rejected.get(), users.size() / seconds);
+    }
+}
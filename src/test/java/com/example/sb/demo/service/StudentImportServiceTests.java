@@ -0,0 +1,212 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.StudentImportReport;
+import com.example.sb.demo.support.MySqlFixture;
+import com.example.sb.demo.support.PerfTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * StudentImportService against MySQL: rejected rows are reported by line,
+ * duplicates are checked with one query per chunk, a row repeating one from an
+ * earlier chunk is found in the database, and a batch that collides
+ * with a signup committed after that check falls back to row-by-row inserts.
+ * The 20k-row timing is tagged perf. Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.import.chunk-size=100"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StudentImportService.class, StatisticsService.class, UserSearchIndex.class, DepartmentDictionary.class,
+        StudentImportServiceTests.Config.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentImportServiceTests {
+    private static final Logger log = LoggerFactory.getLogger(StudentImportServiceTests.class);
+
+    private static final String HEADER = "username,password,email,fullName,department\n";
+    private static final long MAX_MILLIS = Long.getLong("import.maxMillis", 10_000);
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = MySqlFixture.container();
+
+    @Autowired
+    private StudentImportService studentImportService;
+
+    @Autowired
+    private ObservedJdbcTemplate jdbc;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObservedJdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new ObservedJdbcTemplate(dataSource);
+        }
+    }
+
+    /** Counts the import's duplicate checks and can commit signups just before its next batch. */
+    static class ObservedJdbcTemplate extends JdbcTemplate {
+        final AtomicInteger duplicateChecks = new AtomicInteger();
+        volatile List<Object[]> signupsBeforeNextBatch = List.of();
+
+        ObservedJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            if (sql.startsWith("SELECT username, email FROM users")) {
+                duplicateChecks.incrementAndGet();
+            }
+            super.query(sql, rch, args);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            List<Object[]> signups = signupsBeforeNextBatch;
+            signupsBeforeNextBatch = List.of();
+            if (!signups.isEmpty()) {
+                // on a connection of its own, so it commits outside the import's transaction
+                try (Connection connection = getDataSource().getConnection()) {
+                    new JdbcTemplate(new SingleConnectionDataSource(connection, true)).batchUpdate(
+                            "INSERT INTO users (username, password, email, role, full_name, version) "
+                                    + "VALUES (?, 'secret', ?, 'STUDENT', ?, 0)", signups);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+
+    @BeforeEach
+    void resetUsers() {
+        jdbc.update("DELETE FROM users");
+        MySqlFixture.seedUsers(jdbc, 2, 1);
+        jdbc.duplicateChecks.set(0);
+    }
+
+    @Test
+    void reportsRejectedRowsByLineAndImportsTheRest() throws Exception {
+        StudentImportReport report = importCsv(HEADER
+                + "newbie1,pw,newbie1@college.edu,New One,CSE\n"
+                + "student2,pw,other@college.edu,Taken Username,\n"
+                + "newbie2,pw,STUDENT1@college.edu,Taken Email,\n"
+                + "NEWBIE1,pw,x@college.edu,Repeated Username,\n"
+                + "newbie3,pw,newbie1@college.edu,Repeated Email,\n"
+                + "newbie4,pw,not-an-email,Bad Email,\n"
+                + "newbie5,pw,newbie5@college.edu,\"Quoted, Name\",IT\n");
+
+        assertThat(report.getRows()).isEqualTo(7);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(5);
+        assertThat(report.getErrors())
+                .extracting(StudentImportReport.RowError::getLine, StudentImportReport.RowError::getReason)
+                .containsExactly(
+                        tuple(5L, "Username appears earlier in the file"),
+                        tuple(6L, "Email appears earlier in the file"),
+                        tuple(7L, "Invalid email address"),
+                        tuple(3L, "Username already exists"),
+                        tuple(4L, "Email already exists"));
+        assertThat(jdbc.queryForObject("SELECT full_name FROM users WHERE username = 'newbie5'", String.class))
+                .isEqualTo("Quoted, Name");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class)).isEqualTo(4);
+    }
+
+    @Test
+    void checksDuplicatesOncePerChunk() throws Exception {
+        StudentImportReport report = importCsv(students("chunk", 250));
+
+        assertThat(report.getImported()).isEqualTo(250);
+        assertThat(jdbc.duplicateChecks.get()).isEqualTo(3);
+    }
+
+    @Test
+    void repeatsFromAnEarlierChunkAreFoundInTheDatabase() throws Exception {
+        StudentImportReport report = importCsv(students("chunk", 150)
+                + "CHUNK7,pw,repeat7@college.edu,Repeat Of Row 7,\n"
+                + "repeat8,pw,chunk120@college.edu,Repeat Of Row 120,\n");
+
+        assertThat(report.getImported()).isEqualTo(150);
+        assertThat(report.getErrors())
+                .extracting(StudentImportReport.RowError::getLine, StudentImportReport.RowError::getReason)
+                .containsExactly(
+                        tuple(153L, "Email appears earlier in the file"),
+                        tuple(152L, "Username already exists"));
+    }
+
+    @Test
+    void fallsBackToRowInsertsWhenABatchHitsAConcurrentSignup() throws Exception {
+        jdbc.signupsBeforeNextBatch = List.of(
+                new Object[]{"race10", "someone@college.edu", "Signed Up First"},
+                new Object[]{"someone", "race20@college.edu", "Signed Up First"});
+
+        StudentImportReport report = importCsv(students("race", 50));
+
+        assertThat(report.getImported()).isEqualTo(48);
+        assertThat(report.getErrors())
+                .extracting(StudentImportReport.RowError::getLine, StudentImportReport.RowError::getReason)
+                .containsExactly(tuple(11L, "Username already exists"), tuple(21L, "Email already exists"));
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE username LIKE 'race%'", Long.class))
+                .isEqualTo(49);
+    }
+
+    @Test
+    @PerfTest
+    void importsTwentyThousandStudentsInSeconds() throws Exception {
+        String csv = students("bulk", 20_000);
+
+        long start = System.nanoTime();
+        StudentImportReport report = importCsv(csv);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("student import: {} rows in {} ms", report.getImported(), millis);
+        assertThat(report.getImported()).isEqualTo(20_000);
+        assertThat(millis).isLessThan(MAX_MILLIS);
+    }
+
+    /** Rows prefix1 to prefixN; row i is on line i + 1. */
+    private static String students(String prefix, int count) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= count; i++) {
+            csv.append(prefix).append(i).append(",pw,").append(prefix).append(i).append("@college.edu,")
+                    .append("Student ").append(i).append(",DEPT").append(i % 12).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private StudentImportReport importCsv(String csv) throws Exception {
+        return studentImportService.importStudents(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
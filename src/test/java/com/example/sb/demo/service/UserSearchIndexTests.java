@@ -0,0 +1,94 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.UserSearchDocument;
+import com.example.sb.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTests {
+
+    private final UserSearchIndex index = new UserSearchIndex(null);
+
+    @BeforeEach
+    void setUp() {
+        index.index(List.of(
+                new UserSearchDocument(3L, "grace", "Grace Hopper", "grace@navy.mil", "ADMIN"),
+                new UserSearchDocument(1L, "ada", "Ada Lovelace", "ada@example.com", "STUDENT"),
+                new UserSearchDocument(2L, "alan", "Alan Turing", "alan@example.com", "STUDENT")));
+    }
+
+    @Test
+    void matchesSubstringsOfAnyFieldIgnoringCase() {
+        assertThat(index.search("LOVE", null, 0, 10).userIds()).containsExactly(1L);
+        assertThat(index.search("example.c", null, 0, 10).userIds()).containsExactly(1L, 2L);
+        assertThat(index.search("per", null, 0, 10).userIds()).containsExactly(3L);
+    }
+
+    @Test
+    void confirmsCandidatesAgainstTheText() {
+        index.index(List.of(new UserSearchDocument(4L, "abcab", "Abc Ab", "abcab@example.com", "STUDENT")));
+
+        // every trigram of "bcabc" is in "abcab", the string itself is not
+        assertThat(index.search("bcabc", null, 0, 10).total()).isZero();
+        assertThat(index.search("bcab", null, 0, 10).userIds()).containsExactly(4L);
+    }
+
+    @Test
+    void matchesAtTheEndOfAField() {
+        assertThat(index.search("ace", null, 0, 10).userIds()).containsExactly(1L, 3L);
+        assertThat(index.search("mil", null, 0, 10).userIds()).containsExactly(3L);
+    }
+
+    @Test
+    void ignoresQueriesShorterThanATrigram() {
+        assertThat(index.search("al", null, 0, 10).total()).isZero();
+        assertThat(index.search(" a ", null, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void filtersByRoleAndPages() {
+        assertThat(index.search("example", "STUDENT", 0, 10).userIds()).containsExactly(1L, 2L);
+        assertThat(index.search("example", "ADMIN", 0, 10).total()).isZero();
+
+        UserSearchIndex.Hits page = index.search("example", null, 1, 1);
+        assertThat(page.total()).isEqualTo(2);
+        assertThat(page.userIds()).containsExactly(2L);
+
+        UserSearchIndex.Hits farPastTheEnd = index.search("example", null, Integer.MAX_VALUE - 1, 25);
+        assertThat(farPastTheEnd.total()).isEqualTo(2);
+        assertThat(farPastTheEnd.userIds()).isEmpty();
+    }
+
+    @Test
+    void reindexingReplacesTheOldText() {
+        index.index(List.of(new UserSearchDocument(2L, "alan", "Alan Mathison Turing", "alan@example.com", "ADMIN")));
+
+        assertThat(index.search("mathison", "ADMIN", 0, 10).userIds()).containsExactly(2L);
+        assertThat(index.search("turing", "STUDENT", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void rebuildKeepsChangesCommittedWhileItLoads() {
+        UserSearchIndex[] holder = new UserSearchIndex[1];
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllSearchDocuments")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    // user 2 signs up and commits after the load read its rows
+                    holder[0].index(List.of(new UserSearchDocument(2L, "alan", "Alan Turing", "alan@example.com", "STUDENT")));
+                    return List.of(new UserSearchDocument(1L, "ada", "Ada Lovelace", "ada@example.com", "STUDENT"));
+                });
+        UserSearchIndex rebuilt = new UserSearchIndex(repository);
+        holder[0] = rebuilt;
+
+        rebuilt.rebuild();
+
+        assertThat(rebuilt.search("example", null, 0, 10).userIds()).containsExactly(1L, 2L);
+    }
+}
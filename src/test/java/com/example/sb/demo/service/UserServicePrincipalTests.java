@@ -0,0 +1,85 @@
+package com.example.sb.demo.service;
+
+import com.example.sb.demo.dto.SessionUser;
+import com.example.sb.demo.entity.User;
+import com.example.sb.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserServicePrincipalTests {
+
+    private final Map<Long, User> rows = new HashMap<>();
+    private final MockHttpSession session = new MockHttpSession();
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{UserRepository.class}, (proxy, method, args) ->
+                        switch (method.getName()) {
+                            case "findVersionById" -> Optional.ofNullable(rows.get((Long) args[0])).map(User::getVersion);
+                            case "findById" -> Optional.ofNullable(rows.get((Long) args[0]));
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        });
+        userService = new UserService(repository, null, null, null);
+        ReflectionTestUtils.setField(userService, "versionTtlSeconds", 0L);
+        ReflectionTestUtils.setField(userService, "maxCachedVersions", 100L);
+        userService.start();
+
+        rows.put(1L, user(1L, "STUDENT", 0));
+        userService.login(session, rows.get(1L));
+    }
+
+    @Test
+    void sessionHoldsOnlyThePrincipal() {
+        assertThat(Collections.list(session.getAttributeNames())).containsExactly("principal");
+        assertThat(userService.resolvePrincipal(session)).map(SessionUser::getRole).contains("STUDENT");
+    }
+
+    @Test
+    void roleChangedElsewhereIsPickedUpOnceTheVersionExpires() {
+        userService.resolvePrincipal(session);
+        // another instance promotes the user; this one never saw the save
+        rows.put(1L, user(1L, "ADMIN", 1));
+
+        assertThat(userService.resolvePrincipal(session)).map(SessionUser::isAdmin).contains(true);
+        assertThat(((SessionUser) session.getAttribute("principal")).getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedUserLosesTheSession() {
+        rows.clear();
+
+        assertThat(userService.resolvePrincipal(session)).isEmpty();
+        assertThat(session.getAttribute("principal")).isNull();
+    }
+
+    @Test
+    void legacySessionIsUpgradedToAPrincipal() {
+        MockHttpSession legacy = new MockHttpSession();
+        legacy.setAttribute("user_id", 1L);
+        legacy.setAttribute("user_role", "STUDENT");
+
+        assertThat(userService.resolvePrincipal(legacy)).map(SessionUser::getId).contains(1L);
+        assertThat(Collections.list(legacy.getAttributeNames())).containsExactly("principal");
+    }
+
+    private static User user(Long id, String role, long version) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        user.setFullName("User " + id);
+        user.setVersion(version);
+        return user;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sb.demo.support;
+
+import com.example.sb.demo.entity.Event;
+import com.example.sb.demo.repository.EventRepository;
+import com.example.sb.demo.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MySQL container and seed data shared by the database tests. Users are
+ * written with JDBC batches, so seeding thousands takes well under a second;
+ * ids start at 1, user {@code i} is {@link #username(long)} with password
+ * {@value #PASSWORD}, and the first users are admins.
+ */
+public final class MySqlFixture {
+    public static final String PASSWORD = "secret";
+
+    private static final int BATCH = 5_000;
+
+    private MySqlFixture() {
+    }
+
+    /** A MySQL 8 container whose JDBC URL lets the driver rewrite batches into multi-row inserts. */
+    public static MySQLContainer<?> container() {
+        return new MySQLContainer<>("mysql:8.0")
+                .withUrlParam("rewriteBatchedStatements", "true");
+    }
+
+    /**
+     * Inserts users 1 to {@code count} unless the table already has rows. The
+     * first {@code admins} are ADMIN and the rest STUDENT; user {@code i} is in
+     * department DEPT(i mod 12).
+     */
+    public static void seedUsers(JdbcTemplate jdbc, int count, int admins) {
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(Math.min(count, BATCH));
+        for (long i = 1; i <= count; i++) {
+            rows.add(new Object[]{i, username(i), PASSWORD, username(i) + "@college.edu",
+                    i <= admins ? "ADMIN" : "STUDENT", "Student " + i, "DEPT" + (i % 12)});
+            if (rows.size() == BATCH) {
+                insertUsers(jdbc, rows);
+                rows.clear();
+            }
+        }
+        insertUsers(jdbc, rows);
+    }
+
+    public static String username(long id) {
+        return "student" + id;
+    }
+
+    /** An event organized by user 1; unlimited when capacity is null. */
+    public static Event createEvent(EventRepository eventRepository, UserRepository userRepository, Integer capacity) {
+        Event event = new Event();
+        event.setTitle("Fest " + (capacity == null ? "open" : capacity));
+        event.setDescription("Opening day");
+        event.setVenue("Main Ground");
+        event.setEventDate(LocalDateTime.now().plusDays(30));
+        event.setMaxParticipants(capacity);
+        event.setCreatedBy(userRepository.findById(1L).orElseThrow());
+        return eventRepository.save(event);
+    }
+
+    public static int seatsTaken(JdbcTemplate jdbc, Event event) {
+        return jdbc.queryForObject("SELECT seats_taken FROM events WHERE id = ?", Integer.class, event.getId());
+    }
+
+    private static void insertUsers(JdbcTemplate jdbc, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO users (id, username, password, email, role, full_name, department, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+        }
+    }
+}
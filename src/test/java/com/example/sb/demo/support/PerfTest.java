@@ -0,0 +1,20 @@
+package com.example.sb.demo.support;
+
+import org.junit.jupiter.api.Tag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a load, stress or timing test. They take minutes and their thresholds
+ * depend on the machine, so the default build excludes the {@value #TAG} tag;
+ * run them with {@code mvn -Pperf test}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Tag(PerfTest.TAG)
+public @interface PerfTest {
+    String TAG = "perf";
+}